@@ -34,6 +34,7 @@ android {
 
 dependencies {
 
+    implementation(project(":core"))
     implementation("com.google.android.material:material:1.9.0")
     implementation(libs.appcompat)
     implementation(libs.material)
@@ -44,7 +45,7 @@ dependencies {
     implementation(libs.credentials.play.services.auth)
     implementation(libs.googleid)
     implementation(libs.firebase.database)
-    implementation(libs.firebase.firestore)
+    implementation(libs.tracing)
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
@@ -55,9 +56,8 @@ dependencies {
     implementation("com.google.android.gms:play-services-auth:20.7.0")
     // Facebook Login
     implementation("com.facebook.android:facebook-login:latest.release")
-    // Firebase Auth & Firestore
+    // Firebase Auth
     implementation("com.google.firebase:firebase-auth:22.1.0")
-    implementation("com.google.firebase:firebase-firestore:24.5.0")
     implementation("com.google.android.material:material:1.9.0")
     // MPAndroidChart for graphs
     implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
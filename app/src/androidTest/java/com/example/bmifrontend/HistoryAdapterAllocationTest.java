@@ -0,0 +1,77 @@
+package com.example.bmifrontend;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.ContextThemeWrapper;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import Model.User;
+
+import static org.junit.Assert.*;
+
+// onBindViewHolder only hands prepared Strings and shared colors to the views,
+// so binding rows (after each view has been bound once) must not allocate.
+@RunWith(AndroidJUnit4.class)
+public class HistoryAdapterAllocationTest {
+    private static final int ROWS = 200;
+    private static final String[] CATEGORIES = {"Underweight", "Normal", "Overweight", "Obese", "Unknown"};
+
+    @Test
+    public void bindingAllocatesNothing() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_BMIFrontEnd);
+            RecyclerView parent = new RecyclerView(context);
+            parent.setLayoutManager(new LinearLayoutManager(context));
+
+            HistoryAdapter adapter = new HistoryAdapter();
+            // the first list is applied synchronously, without a diff
+            adapter.submitList(rows());
+            HistoryAdapter.ViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+
+            // first binds may lazily create tint and background state in the views
+            for (int i = 0; i < CATEGORIES.length; i++) {
+                adapter.onBindViewHolder(holder, i);
+            }
+
+            Debug.startAllocCounting();
+            try {
+                Debug.resetThreadAllocCount();
+                for (int i = 0; i < ROWS; i++) {
+                    adapter.onBindViewHolder(holder, i);
+                }
+                assertEquals("allocations while binding " + ROWS + " rows",
+                        0, Debug.getThreadAllocCount());
+            } finally {
+                Debug.stopAllocCounting();
+                adapter.shutdown();
+            }
+        });
+    }
+
+    private static List<HistoryRow> rows() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
+        List<HistoryRow> rows = new ArrayList<>(ROWS);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < ROWS; i++) {
+            User.Measurement measurement = new User.Measurement(60 + i % 40, 170, 20 + i % 15,
+                    CATEGORIES[i % CATEGORIES.length]);
+            measurement.setKey("key" + i);
+            measurement.setTimestamp(timestamp - i * 86_400_000L);
+            rows.add(HistoryRow.from(measurement, dateFormat, Locale.US));
+        }
+        return rows;
+    }
+}
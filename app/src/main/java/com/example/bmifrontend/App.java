@@ -1,13 +1,42 @@
 package com.example.bmifrontend;
 import android.app.Application;
-import com.facebook.FacebookSdk;
-import com.facebook.appevents.AppEventsLogger;
+import android.content.SharedPreferences;
 
+import androidx.appcompat.app.AppCompatDelegate;
+import androidx.tracing.Trace;
+
+// Startup does only what the first frame needs: the saved theme and the database
+// cache. Facebook is initialized on first use (see FacebookInitializer), and each
+// phase is a trace section so cold start can be measured in a system trace.
 public class App extends Application {
+    static final String PREFS_NAME = "app_prefs";
+    static final String KEY_DARK_MODE = "pref_dark_mode";
+
     @Override
     public void onCreate() {
-        super.onCreate();
-        FacebookSdk.setClientToken(getString(R.string.facebook_client_token));
-        FacebookSdk.sdkInitialize(getApplicationContext());
+        StartupTrace.beginColdStart();
+        Trace.beginSection("App.onCreate");
+        try {
+            super.onCreate();
+
+            // apply saved theme preference before the first Activity inflates
+            Trace.beginSection("App.applyTheme");
+            SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+            applyNightMode(prefs.getBoolean(KEY_DARK_MODE, false));
+            Trace.endSection();
+
+            // local disk cache first, so screens don't wait on the network
+            Trace.beginSection("App.enableOfflinePersistence");
+            FirebaseHelper.enableOfflinePersistence();
+            Trace.endSection();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    static void applyNightMode(boolean darkMode) {
+        AppCompatDelegate.setDefaultNightMode(
+                darkMode ? AppCompatDelegate.MODE_NIGHT_YES : AppCompatDelegate.MODE_NIGHT_NO
+        );
     }
-}
\ No newline at end of file
+}
@@ -1,21 +0,0 @@
-package com.example.bmifrontend;
-
-import android.app.Application;
-import android.content.SharedPreferences;
-import androidx.appcompat.app.AppCompatDelegate;
-
-public class BMIApplication extends Application {
-
-    @Override
-    public void onCreate() {
-        super.onCreate();
-
-        // apply saved theme preference at app startup
-        SharedPreferences prefs = getSharedPreferences("app_prefs", MODE_PRIVATE);
-        boolean darkMode = prefs.getBoolean("pref_dark_mode", false);
-        AppCompatDelegate.setDefaultNightMode(
-                darkMode ? AppCompatDelegate.MODE_NIGHT_YES : AppCompatDelegate.MODE_NIGHT_NO
-        );
-    }
-}
-
@@ -1,90 +1,154 @@
 package com.example.bmifrontend;
 
+import android.animation.ValueAnimator;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.AttributeSet;
 import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import Model.BmiClassifier;
+
+// Horizontal BMI gauge: light category bands with the reached part drawn dark.
+// Colors are resolved once (and again on configuration changes) and band edges are
+// computed in onSizeChanged, so a frame is only a few drawRect calls with one Paint.
+// animateTo retargets a single reusable animator from the value currently shown,
+// so quick recalculations glide to the latest BMI without allocating per frame.
 public class BMICustomProgressBar extends View {
+    private static final float MAX_RANGE = 40f;
+    private static final long ANIMATION_DURATION_MS = 1000;
+    // upper BMI of each band but the last
+    private static final float[] BAND_LIMITS = BmiClassifier.ADULT.getUpperBounds();
+
     private final Paint paint = new Paint();
-    private int bmiValue = 0;
+    private final Paint markerPaint = new Paint();
+    private float bmiValue = 0f;
+    // 0 when there is no goal
+    private float goalBmi = 0f;
+
+    // runs 0..1 linearly; the value is eased between animationStart and animationTarget
+    private final ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+    private final Interpolator easing = new DecelerateInterpolator(1.5f);
+    private float animationStart = 0f;
+    private float animationTarget = 0f;
+
+    // underweight, normal, overweight, obese
+    private final int[] lightColors = new int[4];
+    private final int[] darkColors = new int[4];
+    // x of each band's left edge, plus the right edge of the last one
+    private final float[] bandEdges = new float[5];
 
     public BMICustomProgressBar(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
+        resolveColors();
+        markerPaint.setStrokeWidth(3 * getResources().getDisplayMetrics().density);
+
+        animator.setDuration(ANIMATION_DURATION_MS);
+        animator.setInterpolator(null); // linear; easing is applied to the fraction below
+        animator.addUpdateListener(animation -> {
+            float fraction = easing.getInterpolation(animation.getAnimatedFraction());
+            bmiValue = animationStart + (animationTarget - animationStart) * fraction;
+            invalidate();
+        });
     }
 
-    public void setBmiValue(int value) {
+    // Show value immediately, stopping any animation
+    public void setBmiValue(float value) {
+        animator.cancel();
         this.bmiValue = value;
+        this.animationTarget = value;
+        invalidate();
+    }
+
+    public float getBmiValue() {
+        return bmiValue;
+    }
+
+    // Animate from the value currently shown to target; restarts smoothly if already animating
+    public void animateTo(float target) {
+        if (animator.isRunning() && target == animationTarget) return;
+
+        animator.cancel();
+        animationStart = bmiValue;
+        animationTarget = target;
+        animator.start();
+    }
+
+    // Goal BMI marker; 0 or less hides it
+    public void setGoalBmi(float goalBmi) {
+        if (this.goalBmi == goalBmi) return;
+        this.goalBmi = goalBmi;
         invalidate();
     }
 
+    private void resolveColors() {
+        Context context = getContext();
+        lightColors[0] = context.getColor(R.color.lightUnderweight);
+        darkColors[0] = context.getColor(R.color.darkUnderweight);
+        lightColors[1] = context.getColor(R.color.lightNormal);
+        darkColors[1] = context.getColor(R.color.darkNormal);
+        lightColors[2] = context.getColor(R.color.lightOverweight);
+        darkColors[2] = context.getColor(R.color.darkOverweight);
+        lightColors[3] = context.getColor(R.color.lightObese);
+        darkColors[3] = context.getColor(R.color.darkObese);
+        markerPaint.setColor(context.getColor(R.color.textPrimary));
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // e.g. a day/night switch can change the category colors
+        resolveColors();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        bandEdges[0] = 0;
+        for (int i = 0; i < BAND_LIMITS.length; i++) {
+            bandEdges[i + 1] = (BAND_LIMITS[i] / MAX_RANGE) * w;
+        }
+        bandEdges[4] = w;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        animator.cancel();
+    }
+
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
         super.onDraw(canvas);
 
-        float width = getWidth();
         float height = getHeight();
+        for (int i = 0; i < lightColors.length; i++) {
+            paint.setColor(lightColors[i]);
+            canvas.drawRect(bandEdges[i], 0, bandEdges[i + 1], height, paint);
+        }
+
+        // Draw progress with dark colors, band by band up to the value
+        float progress = (bmiValue / MAX_RANGE) * getWidth();
+        for (int i = 0; i < darkColors.length; i++) {
+            float start = bandEdges[i];
+            float end = Math.min(bandEdges[i + 1], progress);
+            if (end <= start) break;
+
+            paint.setColor(darkColors[i]);
+            canvas.drawRect(start, 0, end, height, paint);
+        }
 
-        float maxRange = 40f;
-        float progress = (bmiValue / maxRange) * width;
-
-        // Colors
-        int lightUnderweight = getContext().getColor(R.color.lightUnderweight);
-        int darkUnderweight = getContext().getColor(R.color.darkUnderweight);
-        int lightNormal = getContext().getColor(R.color.lightNormal);
-        int darkNormal = getContext().getColor(R.color.darkNormal);
-        int lightOverweight = getContext().getColor(R.color.lightOverweight);
-        int darkOverweight = getContext().getColor(R.color.darkOverweight);
-        int lightObese = getContext().getColor(R.color.lightObese);
-        int darkObese = getContext().getColor(R.color.darkObese);
-
-        // Ranges
-        float underWeightEnd = (18.5F / maxRange) * width;
-        float normalEnd = (24.9F / maxRange) * width;
-        float overweightEnd = (29.9F / maxRange) * width;
-
-        // Draw ranges with with light colors
-        paint.setColor(lightUnderweight);
-        canvas.drawRect(0, 0, underWeightEnd, height, paint);
-
-        paint.setColor(lightNormal);
-        canvas.drawRect(underWeightEnd, 0, normalEnd, height, paint);
-
-        paint.setColor(lightOverweight);
-        canvas.drawRect(normalEnd, 0, overweightEnd, height, paint);
-
-        paint.setColor(lightObese);
-        canvas.drawRect(overweightEnd, 0, width, height, paint);
-
-        // Draw progress with dark colors
-        if (progress <= underWeightEnd) {
-            paint.setColor(darkUnderweight);
-            canvas.drawRect(0, 0, progress, height, paint);
-        } else if(progress <= normalEnd) {
-            paint.setColor(darkUnderweight);
-            canvas.drawRect(0, 0, underWeightEnd, height, paint);
-            paint.setColor(darkNormal);
-            canvas.drawRect(underWeightEnd, 0, progress, height, paint);
-        } else if(progress <= overweightEnd) {
-            paint.setColor(darkUnderweight);
-            canvas.drawRect(0, 0, underWeightEnd, height, paint);
-            paint.setColor(darkNormal);
-            canvas.drawRect(underWeightEnd, 0, normalEnd, height, paint);
-            paint.setColor(darkOverweight);
-            canvas.drawRect(normalEnd, 0, progress, height, paint);
-        } else {
-            paint.setColor(darkUnderweight);
-            canvas.drawRect(0, 0, underWeightEnd, height, paint);
-            paint.setColor(darkNormal);
-            canvas.drawRect(underWeightEnd, 0, normalEnd, height, paint);
-            paint.setColor(darkOverweight);
-            canvas.drawRect(normalEnd, 0, overweightEnd, height, paint);
-            paint.setColor(darkObese);
-            canvas.drawRect(overweightEnd, 0, progress, height, paint);
+        if (goalBmi > 0) {
+            float goalX = Math.min(goalBmi / MAX_RANGE, 1f) * getWidth();
+            canvas.drawLine(goalX, 0, goalX, height, markerPaint);
         }
     }
 }
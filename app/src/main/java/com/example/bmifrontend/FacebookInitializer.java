@@ -0,0 +1,47 @@
+package com.example.bmifrontend;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.tracing.Trace;
+
+import com.facebook.FacebookSdk;
+
+// Facebook SDK setup, deferred until a screen offering Facebook login needs it.
+// The SDK's own startup provider is removed in the manifest, so launches that never
+// reach sign-in or sign-up do not pay for it.
+final class FacebookInitializer {
+    private static final Object LOCK = new Object();
+    private static volatile boolean initialized;
+
+    private FacebookInitializer() {
+    }
+
+    // Blocks until the SDK is ready; cheap once it is
+    static void ensureInitialized(Context context) {
+        if (initialized) return;
+        synchronized (LOCK) {
+            if (initialized) return;
+            Trace.beginSection("FacebookInitializer.initialize");
+            try {
+                Context appContext = context.getApplicationContext();
+                FacebookSdk.setClientToken(appContext.getString(R.string.facebook_client_token));
+                FacebookSdk.sdkInitialize(appContext);
+                initialized = true;
+            } finally {
+                Trace.endSection();
+            }
+        }
+    }
+
+    // Initializes on a background thread once the calling thread's queue goes idle,
+    // so a login screen opened later finds the SDK ready
+    static void warmUpWhenIdle(Context context) {
+        if (initialized) return;
+        Context appContext = context.getApplicationContext();
+        Looper.myQueue().addIdleHandler(() -> {
+            new Thread(() -> ensureInitialized(appContext), "facebook-init").start();
+            return false;
+        });
+    }
+}
@@ -1,32 +1,73 @@
 package com.example.bmifrontend;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.ValueEventListener;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import Model.BmiMath;
 import Model.User;
 
 public class FirebaseHelper {
     private static final String TAG = "FirebaseHelper";
-    private static final String USERS_PATH = "users";
+    static final String USERS_PATH = "users";
+    private static final long PERSISTENCE_CACHE_BYTES = 50L * 1024 * 1024;
+    private static final long SIGN_OUT_FLUSH_TIMEOUT_MS = 3000;
+
+    // Shared by every helper instance; see GoalCache
+    private static final GoalCache goalCache = new GoalCache();
+    // Read started by WelcomeActivity before MainActivity exists; main thread only
+    private static PersonalInfoPrefetch personalInfoPrefetch;
 
     private final DatabaseReference databaseReference;
     private final FirebaseAuth firebaseAuth;
+    private WriteCoalescer writeCoalescer;
 
     public FirebaseHelper() {
         this.databaseReference = FirebaseDatabase.getInstance().getReference();
         this.firebaseAuth = FirebaseAuth.getInstance();
+
+        // Mirror the small nodes every screen opens with into the on-disk cache (see
+        // App.onCreate). Reads of them are then answered from disk right away and Firebase
+        // reconciles with the server in the background. Measurements are not kept synced:
+        // the history grows without bound and is only streamed while a screen shows it.
+        String userId = getCurrentUserId();
+        if (userId != null) {
+            keepSynced(userId, true);
+        }
+    }
+
+    private void keepSynced(String userId, boolean keepSynced) {
+        DatabaseReference userRef = databaseReference.child(USERS_PATH).child(userId);
+        userRef.child("personalInfo").keepSynced(keepSynced);
+        userRef.child("goals").child("currentGoal").keepSynced(keepSynced);
+    }
+
+    // Must run before anything else touches FirebaseDatabase
+    public static void enableOfflinePersistence() {
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        database.setPersistenceCacheSizeBytes(PERSISTENCE_CACHE_BYTES);
+        database.setPersistenceEnabled(true);
     }
 
     // Get current user ID
@@ -56,70 +97,123 @@ public class FirebaseHelper {
                 });
     }
 
-    // Update personal info
-    public void updatePersonalInfo(int age, String gender, float height,
-                                   float currentWeight, OnCompleteListener listener) {
+    // Queue a personal info update instead of writing it right away. Updates made in
+    // quick succession (e.g. toggling gender) are merged and sent as one write, either
+    // after a short quiet period, with the next recordCalculation, or on flushPendingWrites.
+    public void queuePersonalInfo(int age, String gender, float height, float currentWeight) {
         String userId = getCurrentUserId();
-        if (userId == null) {
-            listener.onFailure("User not authenticated");
-            return;
+        if (userId == null) return;
+
+        goalCache.putHeight(userId, height);
+        getWriteCoalescer(userId).queue(personalInfoUpdates(age, gender, height, currentWeight));
+    }
+
+    // Send any queued updates now, e.g. when the screen goes to the background
+    public void flushPendingWrites() {
+        if (writeCoalescer != null) {
+            writeCoalescer.flush();
         }
+    }
 
+    // Number of queued writes that were merged away instead of sent on their own
+    public int getSavedWriteCount() {
+        return writeCoalescer != null ? writeCoalescer.getSavedWriteCount() : 0;
+    }
+
+    private WriteCoalescer getWriteCoalescer(String userId) {
+        if (writeCoalescer == null || !userId.equals(writeCoalescer.getUserRef().getKey())) {
+            flushPendingWrites();
+            writeCoalescer = new WriteCoalescer(databaseReference.child(USERS_PATH).child(userId));
+        }
+        return writeCoalescer;
+    }
+
+    private static Map<String, Object> personalInfoUpdates(int age, String gender, float height,
+                                                          float currentWeight) {
         Map<String, Object> updates = new HashMap<>();
         updates.put("personalInfo/age", age);
         updates.put("personalInfo/gender", gender);
         updates.put("personalInfo/height", height);
         updates.put("personalInfo/currentWeight", currentWeight);
+        return updates;
+    }
+
+    // Overwrite the editable fields of one measurement in a single write
+    public void updateMeasurement(User.Measurement measurement, OnCompleteListener listener) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            listener.onFailure("User not authenticated");
+            return;
+        }
+
+        String path = "measurements/" + measurement.getKey() + "/";
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(path + "weight", measurement.getWeight());
+        updates.put(path + "height", measurement.getHeight());
+        updates.put(path + "bmi", measurement.getBmi());
+        updates.put(path + "category", measurement.getCategory());
 
         databaseReference.child(USERS_PATH).child(userId).updateChildren(updates)
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Personal info updated");
-                    listener.onSuccess();
-                })
+                .addOnSuccessListener(aVoid -> listener.onSuccess())
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error updating personal info", e);
+                    Log.e(TAG, "Error updating measurement", e);
                     listener.onFailure(e.getMessage());
                 });
     }
 
-    // Add new measurement
-    public void addMeasurement(float weight, float height, float bmi,
-                               String category, String note, OnCompleteListener listener) {
+    // Delete several measurements by push key in a single write
+    public void deleteMeasurements(Collection<String> keys, OnCompleteListener listener) {
         String userId = getCurrentUserId();
         if (userId == null) {
             listener.onFailure("User not authenticated");
             return;
         }
+        if (keys.isEmpty()) {
+            listener.onSuccess();
+            return;
+        }
 
-        Map<String, Object> measurement = new HashMap<>();
-        measurement.put("timestamp", System.currentTimeMillis());
-        measurement.put("weight", weight);
-        measurement.put("height", height);
-        measurement.put("bmi", bmi);
-        measurement.put("category", category);
-        measurement.put("note", note != null ? note : "");
+        Map<String, Object> updates = new HashMap<>();
+        for (String key : keys) {
+            updates.put("measurements/" + key, null);
+        }
 
-        String measurementKey = databaseReference.child(USERS_PATH)
-                .child(userId)
-                .child("measurements")
-                .push()
-                .getKey();
-
-        if (measurementKey != null) {
-            databaseReference.child(USERS_PATH)
-                    .child(userId)
-                    .child("measurements")
-                    .child(measurementKey)
-                    .setValue(measurement)
-                    .addOnSuccessListener(aVoid -> {
-                        Log.d(TAG, "Measurement added");
-                        listener.onSuccess();
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Error adding measurement", e);
-                        listener.onFailure(e.getMessage());
-                    });
+        databaseReference.child(USERS_PATH).child(userId).updateChildren(updates)
+                .addOnSuccessListener(aVoid -> listener.onSuccess())
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error deleting measurements", e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+
+    // Delete every measurement with startTimestamp <= timestamp < endTimestamp, including
+    // ones the caller never loaded: one bounded read for the keys, then a single write
+    public void deleteMeasurementsBetween(long startTimestamp, long endTimestamp, OnCompleteListener listener) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            listener.onFailure("User not authenticated");
+            return;
         }
+
+        databaseReference.child(USERS_PATH).child(userId).child("measurements")
+                .orderByChild("timestamp")
+                .startAt(startTimestamp)
+                .endBefore(endTimestamp)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        List<String> keys = new ArrayList<>();
+                        for (DataSnapshot child : snapshot.getChildren()) {
+                            keys.add(child.getKey());
+                        }
+                        deleteMeasurements(keys, listener);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        listener.onFailure(error.getMessage());
+                    }
+                });
     }
 
     // Set BMI goal
@@ -131,11 +225,13 @@ public class FirebaseHelper {
             return;
         }
 
+        long startDate = System.currentTimeMillis();
+
         Map<String, Object> goal = new HashMap<>();
         goal.put("targetWeight", targetWeight);
         goal.put("targetBmi", targetBmi);
         goal.put("startWeight", startWeight);
-        goal.put("startDate", System.currentTimeMillis());
+        goal.put("startDate", startDate);
         goal.put("targetDate", targetDate);
         goal.put("status", "active");
         goal.put("progress", 0f);
@@ -145,6 +241,10 @@ public class FirebaseHelper {
         updates.put("personalInfo/goalWeight", targetWeight);
         updates.put("personalInfo/goalBmi", targetBmi);
 
+        User.Goal cachedGoal = new User.Goal(targetWeight, targetBmi, startWeight, targetDate);
+        cachedGoal.setStartDate(startDate);
+        goalCache.putGoal(userId, cachedGoal);
+
         databaseReference.child(USERS_PATH).child(userId).updateChildren(updates)
                 .addOnSuccessListener(aVoid -> {
                     Log.d(TAG, "Goal set successfully");
@@ -164,38 +264,39 @@ public class FirebaseHelper {
             return;
         }
 
-        // First, get the current goal to calculate progress
+        // Cache hit: compute locally and write once
+        if (goalCache.hasGoal(userId)) {
+            User.Goal goal = goalCache.getGoal(userId);
+            float height = goalCache.getHeight(userId);
+            if (goal == null) {
+                listener.onFailure("No active goal");
+                return;
+            }
+            if (height > 0) {
+                writeGoalProgress(userId, goal, height, currentBmi, listener);
+                return;
+            }
+        }
+
+        // Cache miss: read the current goal and height, then fill the cache
         databaseReference.child(USERS_PATH).child(userId).child("goals").child("currentGoal")
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot snapshot) {
                         if (snapshot.exists()) {
-                            Float targetBmi = snapshot.child("targetBmi").getValue(Float.class);
+                            User.Goal goal = snapshot.getValue(User.Goal.class);
+                            goalCache.putGoal(userId, goal);
 
                             // Get start BMI from personalInfo
                             databaseReference.child(USERS_PATH).child(userId).child("personalInfo")
                                     .addListenerForSingleValueEvent(new ValueEventListener() {
                                         @Override
                                         public void onDataChange(@NonNull DataSnapshot personalSnapshot) {
-                                            Float startWeight = snapshot.child("startWeight").getValue(Float.class);
                                             Float height = personalSnapshot.child("height").getValue(Float.class);
 
-                                            if (targetBmi != null && startWeight != null && height != null) {
-                                                // Calculate start BMI
-                                                float heightInMeters = height / 100;
-                                                float startBmi = startWeight / (heightInMeters * heightInMeters);
-
-                                                float totalDistance = Math.abs(targetBmi - startBmi);
-                                                float currentDistance = Math.abs(currentBmi - startBmi);
-                                                float progress = totalDistance > 0 ? (currentDistance / totalDistance) * 100 : 0;
-                                                progress = Math.min(100, Math.max(0, progress));
-
-                                                Map<String, Object> updates = new HashMap<>();
-                                                updates.put("goals/currentGoal/progress", progress);
-
-                                                databaseReference.child(USERS_PATH).child(userId).updateChildren(updates)
-                                                        .addOnSuccessListener(aVoid -> listener.onSuccess())
-                                                        .addOnFailureListener(e -> listener.onFailure(e.getMessage()));
+                                            if (goal != null && height != null) {
+                                                goalCache.putHeight(userId, height);
+                                                writeGoalProgress(userId, goal, height, currentBmi, listener);
                                             } else {
                                                 listener.onFailure("Missing goal data");
                                             }
@@ -207,6 +308,7 @@ public class FirebaseHelper {
                                         }
                                     });
                         } else {
+                            goalCache.putGoal(userId, null);
                             listener.onFailure("No active goal");
                         }
                     }
@@ -218,27 +320,157 @@ public class FirebaseHelper {
                 });
     }
 
-    // Get user data
-    public void getUserData(OnUserDataListener listener) {
+    private void writeGoalProgress(String userId, User.Goal goal, float height,
+                                   float currentBmi, OnCompleteListener listener) {
+        float progress = calculateGoalProgress(goal.getTargetBmi(), goal.getStartWeight(), height, currentBmi);
+        goal.setProgress(progress);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("goals/currentGoal/progress", progress);
+
+        databaseReference.child(USERS_PATH).child(userId).updateChildren(updates)
+                .addOnSuccessListener(aVoid -> listener.onSuccess())
+                .addOnFailureListener(e -> listener.onFailure(e.getMessage()));
+    }
+
+    // Save one "Calculate" in a single multi-path write: personal info, the new
+    // measurement and, when a goal is active, its recomputed progress.
+    // Either everything lands or nothing does.
+    public void recordCalculation(int age, String gender, float height, float weight,
+                                  float bmi, String category, OnCompleteListener listener) {
         String userId = getCurrentUserId();
         if (userId == null) {
             listener.onFailure("User not authenticated");
             return;
         }
 
-        databaseReference.child(USERS_PATH).child(userId)
+        DatabaseReference userRef = databaseReference.child(USERS_PATH).child(userId);
+
+        // push keys are generated on the client, no round trip needed
+        String measurementKey = userRef.child("measurements").push().getKey();
+        if (measurementKey == null) {
+            listener.onFailure("Could not create measurement key");
+            return;
+        }
+
+        long timestamp = System.currentTimeMillis();
+        Map<String, Object> measurement = new HashMap<>();
+        measurement.put("timestamp", timestamp);
+        measurement.put("weight", weight);
+        measurement.put("height", height);
+        measurement.put("bmi", bmi);
+        measurement.put("category", category);
+        measurement.put("note", "");
+
+        Map<String, Object> updates = personalInfoUpdates(age, gender, height, weight);
+        updates.put("measurements/" + measurementKey, measurement);
+        goalCache.putHeight(userId, height);
+
+        // anything still queued goes out with this write
+        getWriteCoalescer(userId).drainInto(updates);
+
+        continueCalculation(userRef, userId, updates, height, bmi, listener);
+    }
+
+    // Read the goal if it isn't cached yet (once per session), then commit
+    private void continueCalculation(DatabaseReference userRef, String userId, Map<String, Object> updates,
+                                     float height, float bmi, OnCompleteListener listener) {
+        if (!goalCache.hasGoal(userId)) {
+            userRef.child("goals").child("currentGoal")
+                    .addListenerForSingleValueEvent(new ValueEventListener() {
+                        @Override
+                        public void onDataChange(@NonNull DataSnapshot snapshot) {
+                            User.Goal goal = snapshot.exists() ? snapshot.getValue(User.Goal.class) : null;
+                            goalCache.putGoal(userId, goal);
+                            commitCalculation(userRef, updates, goal, height, bmi, listener);
+                        }
+
+                        @Override
+                        public void onCancelled(@NonNull DatabaseError error) {
+                            // still save the measurement, just without progress
+                            commitCalculation(userRef, updates, null, height, bmi, listener);
+                        }
+                    });
+            return;
+        }
+
+        commitCalculation(userRef, updates, goalCache.getGoal(userId), height, bmi, listener);
+    }
+
+    private void commitCalculation(DatabaseReference userRef, Map<String, Object> updates,
+                                   @Nullable User.Goal goal, float height, float bmi,
+                                   OnCompleteListener listener) {
+        if (goal != null && "active".equals(goal.getStatus())) {
+            float progress = calculateGoalProgress(goal.getTargetBmi(), goal.getStartWeight(), height, bmi);
+            updates.put("goals/currentGoal/progress", progress);
+            goal.setProgress(progress);
+        }
+
+        userRef.updateChildren(updates)
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Calculation recorded");
+                    listener.onSuccess();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error recording calculation", e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+
+    // Progress (0-100) from the BMI at the goal's start weight towards its target BMI
+    private static float calculateGoalProgress(float targetBmi, float startWeight, float heightCm, float currentBmi) {
+        return BmiMath.goalProgress(BmiMath.bmiFromCm(startWeight, heightCm), currentBmi, targetBmi);
+    }
+
+    // Start reading the signed-in user's personalInfo now, so the next
+    // getPersonalInfo call can take the result instead of starting its own read
+    public static void prefetchPersonalInfo() {
+        FirebaseHelper helper = new FirebaseHelper();
+        String userId = helper.getCurrentUserId();
+        if (userId == null) {
+            return;
+        }
+        PersonalInfoPrefetch prefetch = new PersonalInfoPrefetch(userId);
+        personalInfoPrefetch = prefetch;
+        helper.readPersonalInfo(userId, prefetch);
+    }
+
+    // Get only personalInfo, without pulling measurements or goals
+    public void getPersonalInfo(OnPersonalInfoListener listener) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            listener.onFailure("User not authenticated");
+            return;
+        }
+
+        // a prefetch is used once; later calls read again
+        PersonalInfoPrefetch prefetch = personalInfoPrefetch;
+        personalInfoPrefetch = null;
+        if (prefetch != null && prefetch.userId.equals(userId)) {
+            prefetch.deliverTo(listener);
+            return;
+        }
+
+        readPersonalInfo(userId, listener);
+    }
+
+    private void readPersonalInfo(String userId, OnPersonalInfoListener listener) {
+        databaseReference.child(USERS_PATH).child(userId).child("personalInfo")
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot snapshot) {
                         if (snapshot.exists()) {
-                            User user = snapshot.getValue(User.class);
-                            if (user != null) {
-                                listener.onSuccess(user);
+                            User.PersonalInfo info = snapshot.getValue(User.PersonalInfo.class);
+                            if (info != null) {
+                                if (info.getHeight() > 0) {
+                                    goalCache.putHeight(userId, info.getHeight());
+                                }
+                                listener.onSuccess(info);
                             } else {
-                                listener.onFailure("Failed to parse user data");
+                                listener.onFailure("Failed to parse personal info");
                             }
                         } else {
-                            listener.onFailure("User data not found");
+                            listener.onFailure("Personal info not found");
                         }
                     }
 
@@ -249,20 +481,233 @@ public class FirebaseHelper {
                 });
     }
 
-    // Update last login
-    public void updateLastLogin() {
+    // Get only goals/currentGoal, without the completed goals
+    public void getCurrentGoal(OnGoalListener listener) {
         String userId = getCurrentUserId();
-        if (userId == null) return;
+        if (userId == null) {
+            listener.onFailure("User not authenticated");
+            return;
+        }
 
-        databaseReference.child(USERS_PATH)
+        databaseReference.child(USERS_PATH).child(userId).child("goals").child("currentGoal")
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        if (snapshot.exists()) {
+                            User.Goal goal = snapshot.getValue(User.Goal.class);
+                            if (goal != null) {
+                                goalCache.putGoal(userId, goal);
+                                listener.onSuccess(goal);
+                            } else {
+                                listener.onFailure("Failed to parse goal");
+                            }
+                        } else {
+                            goalCache.putGoal(userId, null);
+                            listener.onFailure("No active goal");
+                        }
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        listener.onFailure(error.getMessage());
+                    }
+                });
+    }
+
+    // Get measurements taken at or after the given time, oldest first
+    public void getMeasurementsSince(long timestamp, OnMeasurementsListener listener) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            listener.onFailure("User not authenticated");
+            return;
+        }
+
+        databaseReference.child(USERS_PATH).child(userId).child("measurements")
+                .orderByChild("timestamp")
+                .startAt(timestamp)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        Map<String, User.Measurement> measurements = new LinkedHashMap<>();
+                        for (DataSnapshot child : snapshot.getChildren()) {
+                            User.Measurement measurement = child.getValue(User.Measurement.class);
+                            if (measurement != null) {
+                                measurement.setKey(child.getKey());
+                                measurements.put(child.getKey(), measurement);
+                            }
+                        }
+                        listener.onSuccess(measurements);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        listener.onFailure(error.getMessage());
+                    }
+                });
+    }
+
+    // Open a live stream over the measurements whose (timestamp, key) falls between the
+    // given bounds, inclusive. Null bounds leave that side open, so a null end also
+    // receives readings added later.
+    // Returns null if no user is signed in. Callers must close() the stream.
+    @Nullable
+    public MeasurementStream openMeasurementStream(@Nullable Long startTimestamp, @Nullable String startKey,
+                                                   @Nullable Long endTimestamp, @Nullable String endKey,
+                                                   MeasurementStream.Listener listener) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            listener.onFailure("User not authenticated");
+            return null;
+        }
+
+        Query query = databaseReference.child(USERS_PATH)
                 .child(userId)
-                .child("profile")
-                .child("lastLogin")
-                .setValue(System.currentTimeMillis());
+                .child("measurements")
+                .orderByChild("timestamp");
+
+        if (startTimestamp != null) {
+            query = query.startAt(startTimestamp, startKey);
+        }
+        if (endTimestamp != null) {
+            query = query.endAt(endTimestamp, endKey);
+        }
+
+        return new MeasurementStream(query, listener);
+    }
+
+    // Load one page of measurements, newest first.
+    // Pass null cursor values for the newest page, then the timestamp and key of the
+    // oldest measurement already loaded to fetch the page just before it. A null key
+    // with a timestamp excludes every reading at that timestamp.
+    // Relies on the ".indexOn": "timestamp" rule in database.rules.json.
+    public void loadMeasurementPage(@Nullable Long beforeTimestamp, @Nullable String beforeKey,
+                                    int pageSize, OnMeasurementPageListener listener) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            listener.onFailure("User not authenticated");
+            return;
+        }
+
+        Query query = databaseReference.child(USERS_PATH)
+                .child(userId)
+                .child("measurements")
+                .orderByChild("timestamp");
+
+        if (beforeTimestamp != null) {
+            query = query.endBefore(beforeTimestamp, beforeKey);
+        }
+
+        query.limitToLast(pageSize)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        // children arrive oldest first, so flip them for the caller
+                        List<User.Measurement> measurements = new ArrayList<>();
+                        for (DataSnapshot child : snapshot.getChildren()) {
+                            User.Measurement measurement = child.getValue(User.Measurement.class);
+                            if (measurement != null) {
+                                measurement.setKey(child.getKey());
+                                measurements.add(measurement);
+                            }
+                        }
+                        Collections.reverse(measurements);
+
+                        Map<String, User.Measurement> page = new LinkedHashMap<>();
+                        for (User.Measurement measurement : measurements) {
+                            page.put(measurement.getKey(), measurement);
+                        }
+
+                        boolean hasMore = snapshot.getChildrenCount() >= pageSize;
+                        listener.onSuccess(page, hasMore);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        listener.onFailure(error.getMessage());
+                    }
+                });
     }
 
-    public void signOut() {
+    // Sends any queued updates and signs out once the server has taken them, since
+    // the rules reject writes without auth. Offline the write would never complete,
+    // so sign out anyway after SIGN_OUT_FLUSH_TIMEOUT_MS; it is sent on next sign in.
+    public void signOut(Runnable onSignedOut) {
+        Task<Void> flush = writeCoalescer != null ? writeCoalescer.flush() : null;
+        if (flush == null) {
+            finishSignOut(onSignedOut);
+            return;
+        }
+
+        Handler handler = new Handler(Looper.getMainLooper());
+        boolean[] finished = {false};
+        Runnable finish = () -> {
+            if (finished[0]) return;
+            finished[0] = true;
+            handler.removeCallbacksAndMessages(null);
+            finishSignOut(onSignedOut);
+        };
+        flush.addOnCompleteListener(task -> finish.run());
+        handler.postDelayed(finish, SIGN_OUT_FLUSH_TIMEOUT_MS);
+    }
+
+    private void finishSignOut(Runnable onSignedOut) {
+        String userId = getCurrentUserId();
+        if (userId != null) {
+            keepSynced(userId, false);
+        }
+        goalCache.clear();
+        personalInfoPrefetch = null;
         firebaseAuth.signOut();
+        onSignedOut.run();
+    }
+
+    // Holds the result of prefetchPersonalInfo until its consumer attaches
+    private static class PersonalInfoPrefetch implements OnPersonalInfoListener {
+        final String userId;
+        private boolean done;
+        private User.PersonalInfo info;
+        private String error;
+        private OnPersonalInfoListener consumer;
+
+        PersonalInfoPrefetch(String userId) {
+            this.userId = userId;
+        }
+
+        void deliverTo(OnPersonalInfoListener listener) {
+            if (done) {
+                dispatch(listener);
+            } else {
+                consumer = listener;
+            }
+        }
+
+        @Override
+        public void onSuccess(User.PersonalInfo info) {
+            this.info = info;
+            complete();
+        }
+
+        @Override
+        public void onFailure(String error) {
+            this.error = error;
+            complete();
+        }
+
+        private void complete() {
+            done = true;
+            if (consumer != null) {
+                dispatch(consumer);
+                consumer = null;
+            }
+        }
+
+        private void dispatch(OnPersonalInfoListener listener) {
+            if (error == null) {
+                listener.onSuccess(info);
+            } else {
+                listener.onFailure(error);
+            }
+        }
     }
 
     // Interfaces for callbacks
@@ -271,8 +716,25 @@ public class FirebaseHelper {
         void onFailure(String error);
     }
 
-    public interface OnUserDataListener {
-        void onSuccess(User user);
+    public interface OnPersonalInfoListener {
+        void onSuccess(User.PersonalInfo info);
+        void onFailure(String error);
+    }
+
+    public interface OnGoalListener {
+        void onSuccess(User.Goal goal);
+        void onFailure(String error);
+    }
+
+    public interface OnMeasurementsListener {
+        // measurements are ordered oldest first
+        void onSuccess(Map<String, User.Measurement> measurements);
+        void onFailure(String error);
+    }
+
+    public interface OnMeasurementPageListener {
+        // page is ordered newest first
+        void onSuccess(Map<String, User.Measurement> page, boolean hasMore);
         void onFailure(String error);
     }
 }
\ No newline at end of file
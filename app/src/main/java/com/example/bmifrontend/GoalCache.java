@@ -0,0 +1,52 @@
+package com.example.bmifrontend;
+
+import Model.User;
+
+// In-memory copy of the signed-in user's current goal and height.
+// FirebaseHelper keeps it up to date on every goal/personal info/calculation write,
+// so goal progress can be computed locally instead of being read back first.
+class GoalCache {
+    private String userId;
+    private User.Goal goal;
+    private boolean goalKnown = false;
+    private float height = 0f;
+
+    // True once we know whether the user has a goal (it may still be null)
+    synchronized boolean hasGoal(String userId) {
+        return userId.equals(this.userId) && goalKnown;
+    }
+
+    synchronized User.Goal getGoal(String userId) {
+        return userId.equals(this.userId) ? goal : null;
+    }
+
+    // Height in cm, or 0 if unknown
+    synchronized float getHeight(String userId) {
+        return userId.equals(this.userId) ? height : 0f;
+    }
+
+    synchronized void putGoal(String userId, User.Goal goal) {
+        switchUser(userId);
+        this.goal = goal;
+        this.goalKnown = true;
+    }
+
+    synchronized void putHeight(String userId, float height) {
+        switchUser(userId);
+        this.height = height;
+    }
+
+    synchronized void clear() {
+        userId = null;
+        goal = null;
+        goalKnown = false;
+        height = 0f;
+    }
+
+    private void switchUser(String userId) {
+        if (!userId.equals(this.userId)) {
+            clear();
+            this.userId = userId;
+        }
+    }
+}
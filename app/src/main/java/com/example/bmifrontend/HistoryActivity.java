@@ -8,6 +8,7 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -19,14 +20,10 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -34,7 +31,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import Model.BmiClassifier;
+import Model.BmiMath;
+import Model.DayBucketer;
 import Model.User;
+import Model.WeightTrend;
 
 public class HistoryActivity extends AppCompatActivity implements HistoryAdapter.OnItemActionListener {
 
@@ -44,10 +45,30 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
     private MaterialButton btnBack;
     private TextView tvTitle;
 
-    private DatabaseReference databaseReference;
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 10;
+    private static final int LIVE_WINDOW_DAYS = 90;
+
+    private FirebaseHelper firebaseHelper;
     private List<User.Measurement> filteredMeasurements = new ArrayList<>();
     private Map<String, User.Measurement> allMeasurementsMap = new HashMap<>();
 
+    // secondary indexes over allMeasurementsMap
+    private final Map<Long, String> keyByTimestamp = new HashMap<>();
+    private final Map<Integer, List<String>> keysByEpochDay = new HashMap<>();
+    private final DayBucketer dayBucketer = DayBucketer.forDefaultZone();
+
+    // paging cursor: the oldest measurement loaded so far, or the start of the live window
+    private Long oldestLoadedTimestamp;
+    private String oldestLoadedKey;
+    private boolean isLoadingPage = false;
+    private boolean hasMorePages = true;
+    private int oldestShownEpochDay = Integer.MAX_VALUE;
+
+    // the screen's only listener, over the last LIVE_WINDOW_DAYS; see openLiveWindow
+    private MeasurementStream liveStream;
+    private boolean liveWindowLoaded = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -61,9 +82,10 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
             return insets;
         });
 
-        databaseReference = FirebaseDatabase.getInstance().getReference();
+        firebaseHelper = new FirebaseHelper();
         initializeViews();
         setupRecyclerView();
+        setupPaging();
         loadHistoryData();
     }
 
@@ -79,7 +101,7 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
     }
 
     private void setupRecyclerView() {
-        historyAdapter = new HistoryAdapter(filteredMeasurements);
+        historyAdapter = new HistoryAdapter();
         historyAdapter.setOnItemActionListener(this);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(historyAdapter);
@@ -89,78 +111,285 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
 
         if (currentUser != null) {
-            loadAllMeasurements(currentUser.getUid());
+            openLiveWindow();
         } else {
             showEmptyState();
             Toast.makeText(this, "Please sign in to view history", Toast.LENGTH_SHORT).show();
         }
     }
 
-    private void loadAllMeasurements(String userId) {
-        DatabaseReference realtimeDb = FirebaseDatabase.getInstance().getReference();
-        realtimeDb.child("users").child(userId).child("measurements")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot dataSnapshot) {
-                        filteredMeasurements.clear();
-                        allMeasurementsMap.clear();
+    // One stream for the whole screen, over the last LIVE_WINDOW_DAYS and open at the top.
+    // It delivers that window itself, so each of those readings is downloaded once, and
+    // new readings or edits from other devices arrive in place. Older history is paged in
+    // below the window by one-shot reads and is not watched.
+    private void openLiveWindow() {
+        isLoadingPage = true;
+        long windowStart = System.currentTimeMillis() - LIVE_WINDOW_DAYS * WeightTrend.DAY_MILLIS;
+        oldestLoadedTimestamp = windowStart;
+        oldestLoadedKey = null;
+        liveStream = firebaseHelper.openMeasurementStream(windowStart, null, null, null, liveUpdates);
+    }
+
+    // The window's initial readings are indexed as they arrive; show them in one go
+    private void showLiveWindow() {
+        liveWindowLoaded = true;
+        isLoadingPage = false;
+
+        List<User.Measurement> newestFirst = new ArrayList<>(allMeasurementsMap.values());
+        Collections.sort(newestFirst, (a, b) -> {
+            int byTime = Long.compare(b.getTimestamp(), a.getTimestamp());
+            return byTime != 0 ? byTime : b.getKey().compareTo(a.getKey());
+        });
+        appendLatestPerDay(newestFirst);
+
+        if (filteredMeasurements.isEmpty() && hasMorePages) {
+            // nothing recent: go straight to the older pages
+            loadNextPage();
+        } else {
+            updateUI();
+            recyclerView.post(() -> loadNextPageIfNearEnd());
+        }
+    }
 
-                        if (dataSnapshot.exists()) {
-                            List<User.Measurement> allMeasurements = new ArrayList<>();
+    // fetch the next (older) page once the user scrolls close to the end of the list
+    private void setupPaging() {
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy > 0) {
+                    loadNextPageIfNearEnd();
+                }
+            }
+        });
+    }
 
-                            // load EVERY measurements
-                            for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                                User.Measurement measurement = snapshot.getValue(User.Measurement.class);
-                                if (measurement != null) {
-                                    allMeasurements.add(measurement);
-                                    allMeasurementsMap.put(snapshot.getKey(), measurement);
-                                }
-                            }
+    private void loadNextPageIfNearEnd() {
+        if (isLoadingPage || !hasMorePages) return;
 
-                            // sort them (newest always first)
-                            Collections.sort(allMeasurements, (m1, m2) ->
-                                    Long.compare(m2.getTimestamp(), m1.getTimestamp()));
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null) return;
+
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible >= filteredMeasurements.size() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+    }
 
-                            filteredMeasurements.addAll(filterMeasurementsByDay(allMeasurements));
+    private void loadNextPage() {
+        if (isLoadingPage || !hasMorePages) return;
+        isLoadingPage = true;
 
+        firebaseHelper.loadMeasurementPage(oldestLoadedTimestamp, oldestLoadedKey, PAGE_SIZE,
+                new FirebaseHelper.OnMeasurementPageListener() {
+                    @Override
+                    public void onSuccess(Map<String, User.Measurement> page, boolean hasMore) {
+                        // the read isn't cancelled in onDestroy, so it can still land afterwards
+                        if (isDestroyed()) return;
+                        isLoadingPage = false;
+                        hasMorePages = hasMore;
+
+                        List<User.Measurement> kept = new ArrayList<>();
+                        for (Map.Entry<String, User.Measurement> entry : page.entrySet()) {
+                            oldestLoadedKey = entry.getKey();
+                            oldestLoadedTimestamp = entry.getValue().getTimestamp();
+                            putMeasurement(entry.getValue());
+                            kept.add(entry.getValue());
+                        }
+
+                        int start = filteredMeasurements.size();
+                        appendLatestPerDay(kept);
+                        int inserted = filteredMeasurements.size() - start;
+
+                        if (start == 0) {
                             updateUI();
-                        } else {
-                            showEmptyState();
+                        } else if (inserted > 0) {
+                            submitRows();
+                            updateSummary();
                         }
+
+                        // a page can collapse into only a few days, so keep going
+                        // until the list fills the screen and can scroll further
+                        recyclerView.post(() -> loadNextPageIfNearEnd());
                     }
 
                     @Override
-                    public void onCancelled(DatabaseError databaseError) {
-                        showEmptyState();
+                    public void onFailure(String error) {
+                        if (isDestroyed()) return;
+                        isLoadingPage = false;
+                        if (filteredMeasurements.isEmpty()) {
+                            showEmptyState();
+                        }
                         Toast.makeText(HistoryActivity.this, "Error loading data", Toast.LENGTH_SHORT).show();
                     }
                 });
     }
 
-    // keep only the most recent measurement one PER day
-    private List<User.Measurement> filterMeasurementsByDay(List<User.Measurement> allMeasurements) {
-        if (allMeasurements.isEmpty()) {
-            return allMeasurements;
+    private final MeasurementStream.Listener liveUpdates = new MeasurementStream.Listener() {
+        @Override
+        public void onMeasurementAdded(String key, User.Measurement measurement) {
+            applyLiveChange(key, measurement);
         }
 
-        // map to store the most recent measurement for EACH day only
-        Map<String, User.Measurement> measurementsByDay = new HashMap<>();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        @Override
+        public void onMeasurementChanged(String key, User.Measurement measurement) {
+            applyLiveChange(key, measurement);
+        }
 
-        for (User.Measurement measurement : allMeasurements) {
-            String dateKey = dateFormat.format(new Date(measurement.getTimestamp()));
+        @Override
+        public void onMeasurementRemoved(String key) {
+            User.Measurement previous = removeMeasurement(key);
+            if (previous != null && liveWindowLoaded) {
+                refreshDay(toEpochDay(previous.getTimestamp()));
+            }
+        }
+
+        @Override
+        public void onInitialLoadComplete() {
+            if (isDestroyed()) return;
+            showLiveWindow();
+        }
 
-            if (!measurementsByDay.containsKey(dateKey) ||
-                    measurement.getTimestamp() > measurementsByDay.get(dateKey).getTimestamp()) {
-                measurementsByDay.put(dateKey, measurement);
+        @Override
+        public void onFailure(String error) {
+            if (isDestroyed()) return;
+            if (!liveWindowLoaded) {
+                // fall back to plain paging from the newest reading
+                liveWindowLoaded = true;
+                isLoadingPage = false;
+                oldestLoadedTimestamp = null;
+                oldestLoadedKey = null;
+                loadNextPage();
             }
+            Toast.makeText(HistoryActivity.this, "Live updates stopped", Toast.LENGTH_SHORT).show();
         }
+    };
 
-        List<User.Measurement> filteredList = new ArrayList<>(measurementsByDay.values());
-        Collections.sort(filteredList, (m1, m2) ->
-                Long.compare(m2.getTimestamp(), m1.getTimestamp()));
+    private void applyLiveChange(String key, User.Measurement measurement) {
+        User.Measurement previous = putMeasurement(measurement);
+        // the initial window is shown in one go by showLiveWindow
+        if (!liveWindowLoaded) return;
 
-        return filteredList;
+        int epochDay = toEpochDay(measurement.getTimestamp());
+        refreshDay(epochDay);
+
+        if (previous != null) {
+            int previousEpochDay = toEpochDay(previous.getTimestamp());
+            if (previousEpochDay != epochDay) {
+                refreshDay(previousEpochDay);
+            }
+        }
+    }
+
+    // Add or replace a measurement and keep both indexes in step
+    private User.Measurement putMeasurement(User.Measurement measurement) {
+        User.Measurement previous = removeMeasurement(measurement.getKey());
+        allMeasurementsMap.put(measurement.getKey(), measurement);
+        keyByTimestamp.put(measurement.getTimestamp(), measurement.getKey());
+
+        int epochDay = toEpochDay(measurement.getTimestamp());
+        List<String> dayKeys = keysByEpochDay.get(epochDay);
+        if (dayKeys == null) {
+            dayKeys = new ArrayList<>(1);
+            keysByEpochDay.put(epochDay, dayKeys);
+        }
+        dayKeys.add(measurement.getKey());
+        return previous;
+    }
+
+    private User.Measurement removeMeasurement(String key) {
+        User.Measurement previous = allMeasurementsMap.remove(key);
+        if (previous == null) return null;
+
+        if (key.equals(keyByTimestamp.get(previous.getTimestamp()))) {
+            keyByTimestamp.remove(previous.getTimestamp());
+        }
+
+        int epochDay = toEpochDay(previous.getTimestamp());
+        List<String> dayKeys = keysByEpochDay.get(epochDay);
+        if (dayKeys != null) {
+            dayKeys.remove(key);
+            if (dayKeys.isEmpty()) {
+                keysByEpochDay.remove(epochDay);
+            }
+        }
+        return previous;
+    }
+
+    // Recompute one day's row from that day's keys and patch only that row
+    private void refreshDay(int epochDay) {
+        User.Measurement latest = null;
+        List<String> dayKeys = keysByEpochDay.get(epochDay);
+        if (dayKeys != null) {
+            for (String key : dayKeys) {
+                User.Measurement m = allMeasurementsMap.get(key);
+                if (latest == null || m.getTimestamp() > latest.getTimestamp()) {
+                    latest = m;
+                }
+            }
+        }
+
+        int row = findRow(epochDay);
+        boolean hasRow = row < filteredMeasurements.size()
+                && toEpochDay(filteredMeasurements.get(row).getTimestamp()) == epochDay;
+
+        if (latest == null) {
+            if (hasRow) {
+                filteredMeasurements.remove(row);
+            }
+        } else if (hasRow) {
+            filteredMeasurements.set(row, latest);
+        } else {
+            filteredMeasurements.add(row, latest);
+        }
+        submitRows();
+
+        if (filteredMeasurements.isEmpty()) {
+            showEmptyState();
+        } else {
+            hideEmptyState();
+            updateSummary();
+        }
+    }
+
+    // Rows are one per day, newest first: binary search for the day's row,
+    // or the position where it would be inserted
+    private int findRow(int epochDay) {
+        int low = 0;
+        int high = filteredMeasurements.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (toEpochDay(filteredMeasurements.get(mid).getTimestamp()) > epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Local calendar day as days since 1970-01-01
+    private int toEpochDay(long timestamp) {
+        return dayBucketer.epochDay(timestamp);
+    }
+
+    // keep only the most recent measurement one PER day.
+    // Pages arrive newest first and each page is older than the last, so the first
+    // measurement seen for a day is always its latest one.
+    private void appendLatestPerDay(List<User.Measurement> newestFirst) {
+        int count = newestFirst.size();
+        long[] timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = newestFirst.get(i).getTimestamp();
+        }
+
+        int[] latestIndexes = new int[count];
+        int days = dayBucketer.latestPerDay(timestamps, count, oldestShownEpochDay, latestIndexes);
+        for (int i = 0; i < days; i++) {
+            filteredMeasurements.add(newestFirst.get(latestIndexes[i]));
+        }
+        if (days > 0) {
+            oldestShownEpochDay = toEpochDay(timestamps[latestIndexes[days - 1]]);
+        }
     }
 
     @Override
@@ -203,21 +432,23 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
                     }
 
                     // recalculate BMI
-                    float heightInMeters = height / 100;
-                    float bmi = weight / (heightInMeters * heightInMeters);
+                    float bmi = BmiMath.bmiFromCm(weight, height);
 
                     // set category
                     String category = getBmiCategory(bmi);
 
-                    measurement.setWeight(weight);
-                    measurement.setHeight(height);
-                    measurement.setBmi(bmi);
-                    measurement.setCategory(category);
+                    // edit a copy: the adapter diffs against the row it was given
+                    User.Measurement edited = new User.Measurement(measurement);
+                    edited.setWeight(weight);
+                    edited.setHeight(height);
+                    edited.setBmi(bmi);
+                    edited.setCategory(category);
 
-                    updateMeasurementInFirebase(measurement);
-
-                    filteredMeasurements.set(position, measurement);
-                    historyAdapter.notifyItemChanged(position);
+                    updateMeasurementInFirebase(edited);
+                    if (edited.getKey() != null) {
+                        putMeasurement(edited);
+                    }
+                    refreshDay(toEpochDay(edited.getTimestamp()));
 
                     Toast.makeText(HistoryActivity.this,
                             "Measurement updated", Toast.LENGTH_SHORT).show();
@@ -235,26 +466,16 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
     }
 
     private String getBmiCategory(float bmi) {
-        if (bmi < 18.5f) return "Underweight";
-        else if (bmi < 24.9f) return "Normal";
-        else if (bmi < 29.9f) return "Overweight";
-        else return "Obese";
+        return BmiClassifier.ADULT.classify(bmi).getLabel();
     }
 
     private void updateMeasurementInFirebase(User.Measurement measurement) {
-        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        if (currentUser == null) return;
-
-        DatabaseReference userRef = FirebaseDatabase.getInstance().getReference()
-                .child("users").child(currentUser.getUid()).child("measurements");
-
-        // find in Firebase
-        for (Map.Entry<String, User.Measurement> entry : allMeasurementsMap.entrySet()) {
-            if (entry.getValue().getTimestamp() == measurement.getTimestamp()) {
-                userRef.child(entry.getKey()).setValue(measurement);
-                break;
-            }
+        if (measurement.getKey() == null) {
+            measurement.setKey(keyByTimestamp.get(measurement.getTimestamp()));
         }
+        if (measurement.getKey() == null) return;
+
+        firebaseHelper.updateMeasurement(measurement, silentListener);
     }
 
     @Override
@@ -276,38 +497,55 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
     }
 
     private void deleteMeasurementsFromDay(int position, User.Measurement measurement) {
-        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        if (currentUser == null) return;
-
-        DatabaseReference userRef = FirebaseDatabase.getInstance().getReference()
-                .child("users").child(currentUser.getUid()).child("measurements");
-
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        String targetDate = dateFormat.format(new Date(measurement.getTimestamp()));
-
-        // find in Firebase
-        for (Map.Entry<String, User.Measurement> entry : allMeasurementsMap.entrySet()) {
-            String existingDate = dateFormat.format(new Date(entry.getValue().getTimestamp()));
-            if (existingDate.equals(targetDate)) {
-                userRef.child(entry.getKey()).removeValue();
+        int epochDay = toEpochDay(measurement.getTimestamp());
+
+        // the whole local day on the server, including readings on pages not loaded yet
+        Calendar day = Calendar.getInstance();
+        day.setTimeInMillis(measurement.getTimestamp());
+        day.set(Calendar.HOUR_OF_DAY, 0);
+        day.set(Calendar.MINUTE, 0);
+        day.set(Calendar.SECOND, 0);
+        day.set(Calendar.MILLISECOND, 0);
+        long dayStart = day.getTimeInMillis();
+        day.add(Calendar.DAY_OF_MONTH, 1);
+        firebaseHelper.deleteMeasurementsBetween(dayStart, day.getTimeInMillis(), silentListener);
+
+        // remove the loaded readings from the map, then drop the day's row
+        List<String> dayKeys = keysByEpochDay.get(epochDay);
+        if (dayKeys != null) {
+            for (String key : new ArrayList<>(dayKeys)) {
+                removeMeasurement(key);
             }
         }
+        refreshDay(epochDay);
 
-        // remove from filtered list
-        filteredMeasurements.remove(position);
-        historyAdapter.notifyItemRemoved(position);
+        Toast.makeText(this, "Measurement deleted", Toast.LENGTH_SHORT).show();
 
-        // remove from map
-        allMeasurementsMap.entrySet().removeIf(entry -> {
-            String existingDate = dateFormat.format(new Date(entry.getValue().getTimestamp()));
-            return existingDate.equals(targetDate);
-        });
+        if (filteredMeasurements.isEmpty() && hasMorePages) {
+            loadNextPage();
+        }
+    }
 
-        Toast.makeText(this, "Measurement deleted", Toast.LENGTH_SHORT).show();
+    private final FirebaseHelper.OnCompleteListener silentListener = new FirebaseHelper.OnCompleteListener() {
+        @Override
+        public void onSuccess() {
+            // Live stream already reflects the change
+        }
 
-        if (historyAdapter.getItemCount() == 0) {
-            showEmptyState();
+        @Override
+        public void onFailure(String error) {
+            Toast.makeText(HistoryActivity.this, "Couldn't save change: " + error, Toast.LENGTH_SHORT).show();
+        }
+    };
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (liveStream != null) {
+            liveStream.close();
+            liveStream = null;
         }
+        historyAdapter.shutdown();
     }
 
     private void updateUI() {
@@ -315,13 +553,19 @@ public class HistoryActivity extends AppCompatActivity implements HistoryAdapter
             showEmptyState();
         } else {
             hideEmptyState();
-            if (historyAdapter != null) {
-                historyAdapter.notifyDataSetChanged();
-            }
+            submitRows();
             updateSummary();
         }
     }
 
+    // Hand the adapter a snapshot of the rows; it formats and diffs them off the
+    // main thread and dispatches only what changed
+    private void submitRows() {
+        if (historyAdapter != null) {
+            historyAdapter.submitMeasurements(new ArrayList<>(filteredMeasurements));
+        }
+    }
+
     private void showEmptyState() {
         if (emptyState != null) emptyState.setVisibility(View.VISIBLE);
         if (recyclerView != null) recyclerView.setVisibility(View.GONE);
@@ -1,6 +1,10 @@
 package com.example.bmifrontend;
 
+import android.content.Context;
+import android.content.res.ColorStateList;
 import android.graphics.drawable.GradientDrawable;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,63 +14,152 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
 
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import Model.BmiCategory;
 import Model.User;
 
-public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHolder> {
+// Rows are diffed on a background thread (ListAdapter's AsyncListDiffer), so
+// submitMeasurements dispatches only the inserts, moves, changes and removals.
+// Each measurement is formatted into a HistoryRow once, on rowExecutor, and the
+// category colors are resolved once per adapter, so binding a row allocates nothing.
+// Submitted measurements must not be mutated afterwards: submit a copy instead.
+public class HistoryAdapter extends ListAdapter<HistoryRow, HistoryAdapter.ViewHolder> {
 
-    private List<User.Measurement> measurements;
     private OnItemActionListener itemActionListener;
-    private int expandedPosition = -1;
+    // key of the row showing its action buttons, so it survives diffs that move rows
+    private String expandedKey;
+
+    private final ExecutorService rowExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // rows of the last build, reused for measurements that are still in the list; rowExecutor only
+    private Map<User.Measurement, HistoryRow> builtRows = new IdentityHashMap<>();
+    private SimpleDateFormat rowDateFormat;
+
+    // indexed by BmiCategory ordinal, with unknown categories last; filled on first onCreateViewHolder
+    private int[] categoryColors;
+    private ColorStateList[] categoryTints;
 
     public interface OnItemActionListener {
         void onEditMeasurement(int position, User.Measurement measurement);
         void onDeleteMeasurement(int position, User.Measurement measurement);
     }
 
-    public HistoryAdapter(List<User.Measurement> measurements) {
-        this.measurements = measurements;
+    private static final DiffUtil.ItemCallback<HistoryRow> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<HistoryRow>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull HistoryRow oldItem, @NonNull HistoryRow newItem) {
+                    if (oldItem.getKey() != null || newItem.getKey() != null) {
+                        return Objects.equals(oldItem.getKey(), newItem.getKey());
+                    }
+                    return oldItem.measurement.getTimestamp() == newItem.measurement.getTimestamp();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull HistoryRow oldItem, @NonNull HistoryRow newItem) {
+                    return oldItem.looksLike(newItem);
+                }
+            };
+
+    public HistoryAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
     }
 
     public void setOnItemActionListener(OnItemActionListener listener) {
         this.itemActionListener = listener;
     }
 
-    @NonNull
+    // Format the measurements into rows on rowExecutor, then diff them in.
+    // Ignored once shutdown() has been called.
+    public void submitMeasurements(List<User.Measurement> measurements) {
+        if (rowExecutor.isShutdown()) return;
+
+        rowExecutor.execute(() -> {
+            if (rowDateFormat == null) {
+                rowDateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+            }
+            Locale locale = Locale.getDefault();
+
+            Map<User.Measurement, HistoryRow> rowsByMeasurement = new IdentityHashMap<>(measurements.size());
+            List<HistoryRow> rows = new ArrayList<>(measurements.size());
+            for (User.Measurement measurement : measurements) {
+                HistoryRow row = builtRows.get(measurement);
+                if (row == null) {
+                    row = HistoryRow.from(measurement, rowDateFormat, locale);
+                }
+                rowsByMeasurement.put(measurement, row);
+                rows.add(row);
+            }
+            builtRows = rowsByMeasurement;
+
+            mainHandler.post(() -> {
+                if (!rowExecutor.isShutdown()) {
+                    submitList(rows);
+                }
+            });
+        });
+    }
+
+    // Stop the row builder; call when the owning screen goes away
+    public void shutdown() {
+        rowExecutor.shutdownNow();
+    }
+
     @Override
-    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_measurement, parent, false);
-        return new ViewHolder(view);
+    public long getItemId(int position) {
+        HistoryRow row = getItem(position);
+        return row.getKey() != null ? stableId(row.getKey()) : row.measurement.getTimestamp();
     }
 
+    // 64-bit FNV-1a hash of the push key
+    static long stableId(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @NonNull
     @Override
-    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        User.Measurement measurement = measurements.get(position);
-        holder.bind(measurement);
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (categoryColors == null) {
+            resolveCategoryColors(parent.getContext());
+        }
 
-        boolean isExpanded = position == expandedPosition;
-        holder.actionButtons.setVisibility(isExpanded ? View.VISIBLE : View.GONE);
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_measurement, parent, false);
+        ViewHolder holder = new ViewHolder(view);
 
+        // listeners are set once per holder and look the row up when clicked
         holder.btnMenu.setOnClickListener(v -> {
             int currentPosition = holder.getAdapterPosition();
             if (currentPosition == RecyclerView.NO_POSITION) return;
 
-            if (expandedPosition == currentPosition) {
-                expandedPosition = -1;
+            String key = getItem(currentPosition).getKey();
+            if (key != null && key.equals(expandedKey)) {
+                expandedKey = null;
                 notifyItemChanged(currentPosition);
             } else {
-                int previousExpanded = expandedPosition;
-                expandedPosition = currentPosition;
-                if (previousExpanded != -1) {
+                int previousExpanded = findPosition(expandedKey);
+                expandedKey = key;
+                if (previousExpanded != RecyclerView.NO_POSITION) {
                     notifyItemChanged(previousExpanded);
                 }
                 notifyItemChanged(currentPosition);
@@ -78,8 +171,8 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
             if (currentPosition == RecyclerView.NO_POSITION) return;
 
             if (itemActionListener != null) {
-                itemActionListener.onEditMeasurement(currentPosition, measurement);
-                expandedPosition = -1;
+                itemActionListener.onEditMeasurement(currentPosition, getItem(currentPosition).measurement);
+                expandedKey = null;
                 notifyItemChanged(currentPosition);
             }
         });
@@ -89,30 +182,58 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
             if (currentPosition == RecyclerView.NO_POSITION) return;
 
             if (itemActionListener != null) {
-                itemActionListener.onDeleteMeasurement(currentPosition, measurement);
-                expandedPosition = -1;
+                itemActionListener.onDeleteMeasurement(currentPosition, getItem(currentPosition).measurement);
+                expandedKey = null;
                 notifyItemChanged(currentPosition);
             }
         });
+
+        return holder;
     }
 
     @Override
-    public int getItemCount() {
-        return measurements.size();
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        HistoryRow row = getItem(position);
+        int colorIndex = row.category != null ? row.category.ordinal() : categoryColors.length - 1;
+        holder.bind(row, categoryColors[colorIndex], categoryTints[colorIndex]);
+
+        boolean isExpanded = row.getKey() != null && row.getKey().equals(expandedKey);
+        holder.actionButtons.setVisibility(isExpanded ? View.VISIBLE : View.GONE);
     }
 
-    public void removeItem(int position) {
-        if (position >= 0 && position < measurements.size()) {
-            measurements.remove(position);
-            notifyItemRemoved(position);
+    private void resolveCategoryColors(Context context) {
+        BmiCategory[] categories = BmiCategory.values();
+        categoryColors = new int[categories.length + 1];
+        categoryTints = new ColorStateList[categories.length + 1];
+        for (int i = 0; i <= categories.length; i++) {
+            int colorRes;
+            switch (i < categories.length ? categories[i] : BmiCategory.NORMAL) {
+                case UNDERWEIGHT:
+                    colorRes = R.color.lightUnderweight;
+                    break;
+                case OVERWEIGHT:
+                    colorRes = R.color.lightOverweight;
+                    break;
+                case OBESE:
+                    colorRes = R.color.lightObese;
+                    break;
+                case NORMAL:
+                default:
+                    colorRes = R.color.lightNormal;
+            }
+            categoryColors[i] = ContextCompat.getColor(context, colorRes);
+            categoryTints[i] = ColorStateList.valueOf(categoryColors[i]);
         }
     }
 
-    public void updateItem(int position, User.Measurement measurement) {
-        if (position >= 0 && position < measurements.size()) {
-            measurements.set(position, measurement);
-            notifyItemChanged(position);
+    private int findPosition(String key) {
+        if (key == null) return RecyclerView.NO_POSITION;
+        for (int i = 0; i < getItemCount(); i++) {
+            if (key.equals(getItem(i).getKey())) {
+                return i;
+            }
         }
+        return RecyclerView.NO_POSITION;
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
@@ -140,85 +261,42 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
             btnEdit = itemView.findViewById(R.id.btnEdit);
             btnDelete = itemView.findViewById(R.id.btnDelete);
             btnMenu = itemView.findViewById(R.id.btnMenu);
+
+            // one chip shape per holder, recolored with a shared tint on bind
+            if (tvCategory != null) {
+                GradientDrawable shape = new GradientDrawable();
+                shape.setCornerRadius(32);
+                shape.setShape(GradientDrawable.RECTANGLE);
+                shape.setColor(0xFFFFFFFF);
+                tvCategory.setBackground(shape);
+            }
         }
 
-        public void bind(User.Measurement measurement) {
+        public void bind(HistoryRow row, int categoryColor, ColorStateList categoryTint) {
             if (tvDate != null) {
-                SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-                String date = sdf.format(new Date(measurement.getTimestamp()));
-                tvDate.setText(date);
+                tvDate.setText(row.date);
             }
 
             if (tvWeight != null) {
-                tvWeight.setText(String.format(Locale.getDefault(), "%.1f kg", measurement.getWeight()));
+                tvWeight.setText(row.weight);
             }
 
             if (tvHeight != null) {
-                tvHeight.setText(String.format(Locale.getDefault(), "%.0f cm", measurement.getHeight()));
+                tvHeight.setText(row.height);
             }
 
             if (tvBmi != null) {
-                tvBmi.setText(String.format(Locale.getDefault(), "%.2f", measurement.getBmi()));
+                tvBmi.setText(row.bmi);
             }
 
-            if(tvCategory != null && measurement.getCategory() != null){
-                tvCategory.setText(measurement.getCategory());
-                setCategoryColor(measurement.getCategory());
-                setCategoryChipColor(measurement.getCategory());
-            }
-        }
-
-        private void setCategoryChipColor(String category) {
-            if (tvCategory == null) return;
-
-            int colorRes;
-            switch (category.toLowerCase()) {
-                case "underweight":
-                    colorRes = R.color.lightUnderweight;
-                    break;
-                case "normal":
-                    colorRes = R.color.lightNormal;
-                    break;
-                case "overweight":
-                    colorRes = R.color.lightOverweight;
-                    break;
-                case "obese":
-                    colorRes = R.color.lightObese;
-                    break;
-                default:
-                    colorRes = R.color.lightNormal;
+            if (tvCategory != null) {
+                tvCategory.setText(row.categoryLabel);
+                tvCategory.setBackgroundTintList(categoryTint);
             }
 
-            GradientDrawable shape = new GradientDrawable();
-            shape.setColor(ContextCompat.getColor(itemView.getContext(), colorRes));
-            shape.setCornerRadius(32);
-            shape.setShape(GradientDrawable.RECTANGLE);
-            tvCategory.setBackground(shape);
-        }
-
-        private void setCategoryColor(String category) {
-            if (categoryIndicator == null) return;
-
-            int colorRes;
-            switch (category.toLowerCase()) {
-                case "underweight":
-                    colorRes = R.color.lightUnderweight;
-                    break;
-                case "normal":
-                    colorRes = R.color.lightNormal;
-                    break;
-                case "overweight":
-                    colorRes = R.color.lightOverweight;
-                    break;
-                case "obese":
-                    colorRes = R.color.lightObese;
-                    break;
-                default:
-                    colorRes = R.color.lightNormal;
+            if (categoryIndicator != null) {
+                categoryIndicator.setBackgroundColor(categoryColor);
             }
-            categoryIndicator.setBackgroundColor(
-                    ContextCompat.getColor(itemView.getContext(), colorRes)
-            );
         }
     }
 }
\ No newline at end of file
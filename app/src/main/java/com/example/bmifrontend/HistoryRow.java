@@ -0,0 +1,62 @@
+package com.example.bmifrontend;
+
+import androidx.annotation.Nullable;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+
+import Model.BmiCategory;
+import Model.User;
+
+// Display-ready form of one History row. Built once per measurement off the
+// main thread, so binding only hands prepared Strings to the views.
+final class HistoryRow {
+    final User.Measurement measurement;
+    final String date;
+    final String weight;
+    final String height;
+    final String bmi;
+    final String categoryLabel;
+    // null if the stored label isn't a known category
+    @Nullable
+    final BmiCategory category;
+
+    private HistoryRow(User.Measurement measurement, String date, String weight, String height,
+                       String bmi, String categoryLabel, @Nullable BmiCategory category) {
+        this.measurement = measurement;
+        this.date = date;
+        this.weight = weight;
+        this.height = height;
+        this.bmi = bmi;
+        this.categoryLabel = categoryLabel;
+        this.category = category;
+    }
+
+    // dateFormat is not thread-safe: use one per thread
+    static HistoryRow from(User.Measurement measurement, SimpleDateFormat dateFormat, Locale locale) {
+        String categoryLabel = measurement.getCategory() != null ? measurement.getCategory() : "";
+        return new HistoryRow(measurement,
+                dateFormat.format(new Date(measurement.getTimestamp())),
+                String.format(locale, "%.1f kg", measurement.getWeight()),
+                String.format(locale, "%.0f cm", measurement.getHeight()),
+                String.format(locale, "%.2f", measurement.getBmi()),
+                categoryLabel,
+                BmiCategory.fromLabel(categoryLabel));
+    }
+
+    String getKey() {
+        return measurement.getKey();
+    }
+
+    // Same displayed content
+    boolean looksLike(HistoryRow other) {
+        return date.equals(other.date)
+                && weight.equals(other.weight)
+                && height.equals(other.height)
+                && bmi.equals(other.bmi)
+                && categoryLabel.equals(other.categoryLabel)
+                && Objects.equals(category, other.category);
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.bmifrontend;
 
-import android.animation.ObjectAnimator;
 import android.app.Dialog;
 import android.content.Intent;
 import android.content.res.ColorStateList;
@@ -17,7 +16,6 @@ import android.content.SharedPreferences;
 
 import androidx.activity.EdgeToEdge;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.appcompat.app.AppCompatDelegate;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
@@ -29,6 +27,9 @@ import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
+import Model.BmiClassifier;
+import Model.BmiForAge;
+import Model.BmiMath;
 import Model.User;
 
 public class MainActivity extends AppCompatActivity implements View.OnClickListener {
@@ -57,15 +58,10 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        // Apply saved theme preference before setting content view
-        SharedPreferences prefs = getSharedPreferences("app_prefs", MODE_PRIVATE);
-        boolean darkMode = prefs.getBoolean("pref_dark_mode", false);
-        AppCompatDelegate.setDefaultNightMode(
-                darkMode ? AppCompatDelegate.MODE_NIGHT_YES : AppCompatDelegate.MODE_NIGHT_NO
-        );
-
+        // the saved theme is applied once in App, before any Activity starts
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main);
+        StartupTrace.endOnFirstFrame(this);
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
             v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
@@ -83,6 +79,12 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
         loadUserData();
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        firebaseHelper.flushPendingWrites();
+    }
+
     private void loadUserData() {
         FirebaseUser currentUser = firebaseAuth.getCurrentUser();
 
@@ -91,12 +93,13 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
             isLoadingData = true;
             showLoadingState(true);
 
-            firebaseHelper.getUserData(new FirebaseHelper.OnUserDataListener() {
+            // only personalInfo is needed here, so skip the measurement history
+            firebaseHelper.getPersonalInfo(new FirebaseHelper.OnPersonalInfoListener() {
                 @Override
-                public void onSuccess(User user) {
+                public void onSuccess(User.PersonalInfo info) {
                     isLoadingData = false;
                     showLoadingState(false);
-                    populateUserData(user);
+                    populateUserData(info);
                 }
 
                 @Override
@@ -109,6 +112,19 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
                             Snackbar.LENGTH_SHORT).show();
                 }
             });
+
+            // warms FirebaseHelper's goal cache so saving a calculation needs no extra read
+            firebaseHelper.getCurrentGoal(new FirebaseHelper.OnGoalListener() {
+                @Override
+                public void onSuccess(User.Goal goal) {
+                    // Cached by FirebaseHelper
+                }
+
+                @Override
+                public void onFailure(String error) {
+                    // No goal yet
+                }
+            });
         } else {
             // User not logged in - guest mode
             Snackbar.make(findViewById(R.id.main),
@@ -117,32 +133,31 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
         }
     }
 
-    private void populateUserData(User user) {
-        if (user == null) return;
+    private void populateUserData(User.PersonalInfo info) {
+        if (info == null) return;
 
         // Populate personal info
-        if (user.getPersonalInfo() != null) {
-            if (user.getPersonalInfo().getAge() > 0) {
-                etAge.setText(String.valueOf(user.getPersonalInfo().getAge()));
-            }
+        if (info.getAge() > 0) {
+            etAge.setText(String.valueOf(info.getAge()));
+        }
 
-            if (user.getPersonalInfo().getCurrentWeight() > 0) {
-                etWeight.setText(String.valueOf(user.getPersonalInfo().getCurrentWeight()));
-            }
+        if (info.getCurrentWeight() > 0) {
+            etWeight.setText(String.valueOf(info.getCurrentWeight()));
+        }
 
-            if (user.getPersonalInfo().getHeight() > 0) {
-                etHeight.setText(String.valueOf((int) user.getPersonalInfo().getHeight()));
-            }
+        if (info.getHeight() > 0) {
+            etHeight.setText(String.valueOf((int) info.getHeight()));
+        }
 
-            if (user.getPersonalInfo().getGender() != null) {
-                selectedGender = user.getPersonalInfo().getGender();
-                updateGenderSelection();
-            }
+        if (info.getGender() != null) {
+            selectedGender = info.getGender();
+            updateGenderSelection();
+        }
 
-            // Load goal BMI if exists
-            if (user.getPersonalInfo().getGoalBmi() > 0) {
-                goalBmi = user.getPersonalInfo().getGoalBmi();
-            }
+        // Load goal BMI if exists
+        if (info.getGoalBmi() > 0) {
+            goalBmi = info.getGoalBmi();
+            pbHealth.setGoalBmi(goalBmi);
         }
 
 //        // Auto-calculate BMI if we have all the data
@@ -279,41 +294,43 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
             }
         }
 
-        float bmi = weight / (height * height);
+        float bmi = BmiMath.bmi(weight, height);
         currentBmi = bmi;
         tvResultVal.setText(String.format("BMI: %.2f", bmi));
 
         String category = "";
 
         if (age >= 20) {
-            if (bmi < 18.5f) {
-                ObjectAnimator.ofInt(pbHealth, "bmiValue", (int) bmi).setDuration(1000).start();
-                tvBmiCategory.setText("Underweight");
-                category = "Underweight";
-            } else if (bmi < 24.9f) {
-                ObjectAnimator.ofInt(pbHealth, "bmiValue", (int) bmi).setDuration(1000).start();
-                tvBmiCategory.setText("Normal");
-                category = "Normal";
-            } else if (bmi < 29.9f) {
-                ObjectAnimator.ofInt(pbHealth, "bmiValue", (int) bmi).setDuration(1000).start();
-                tvBmiCategory.setText("Overweight");
-                category = "Overweight";
-            } else {
-                ObjectAnimator.ofInt(pbHealth, "bmiValue", (int) bmi).setDuration(1000).start();
-                tvBmiCategory.setText("Obese");
-                category = "Obese";
-            }
+            pbHealth.animateTo(bmi);
+            category = BmiClassifier.ADULT.classify(bmi).getLabel();
+            tvBmiCategory.setText(category);
 
             // Only save to Firebase if explicitly requested
             if (saveToFirebase) {
                 saveBmiCalculationToFirebase(weight, height * 100, bmi, category, age);
             }
 
+        } else if (BmiForAge.CDC.covers(BmiForAge.sexOf(selectedGender), BmiForAge.ageMonths(age))) {
+            // Under 20 the category comes from the BMI-for-age percentile, not the adult bands
+            float percentile = BmiForAge.CDC.percentile(BmiForAge.sexOf(selectedGender),
+                    BmiForAge.ageMonths(age), bmi);
+            category = BmiForAge.categoryOf(percentile).getLabel();
+            tvBmiCategory.setText(String.format("%s (percentile %.0f)", category, percentile));
+            pbHealth.animateTo(0f);
+
+            if (saveToFirebase) {
+                saveBmiCalculationToFirebase(weight, height * 100, bmi, category, age);
+            }
+
         } else {
             tvBmiCategory.setText("");
-            ObjectAnimator.ofInt(pbHealth, "bmiValue", 0).setDuration(1000).start();
+            pbHealth.animateTo(0f);
             tvResultVal.setText("--");
-            Snackbar.make(findViewById(R.id.main), "BMI categories are for ages 20 and above only! Use BMI-for-age percentiles (under 20)", Snackbar.LENGTH_LONG).show();
+            // the CDC reference covers both sexes from age 2, so only these are left
+            String reason = BmiForAge.sexOf(selectedGender) < 0
+                    ? "Select a gender to get a BMI-for-age percentile (under 20)"
+                    : "BMI-for-age percentiles start at age " + BmiForAge.MIN_AGE_YEARS;
+            Snackbar.make(findViewById(R.id.main), reason, Snackbar.LENGTH_LONG).show();
         }
     }
 
@@ -324,20 +341,8 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
             return;
         }
 
-        firebaseHelper.updatePersonalInfo(age, selectedGender, height, weight,
-                new FirebaseHelper.OnCompleteListener() {
-                    @Override
-                    public void onSuccess() {
-                        // Personal info updated
-                    }
-
-                    @Override
-                    public void onFailure(String error) {
-                        // Silent fail
-                    }
-                });
-
-        firebaseHelper.addMeasurement(weight, height, bmi, category, "",
+        // personal info, measurement and goal progress go out as one write
+        firebaseHelper.recordCalculation(age, selectedGender, height, weight, bmi, category,
                 new FirebaseHelper.OnCompleteListener() {
                     @Override
                     public void onSuccess() {
@@ -353,21 +358,6 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
                                 Snackbar.LENGTH_SHORT).show();
                     }
                 });
-
-        // Update goal progress if goal exists
-        if (goalBmi > 0) {
-            firebaseHelper.updateGoalProgress(currentBmi, new FirebaseHelper.OnCompleteListener() {
-                @Override
-                public void onSuccess() {
-                    // Progress updated
-                }
-
-                @Override
-                public void onFailure(String error) {
-                    // Silent fail
-                }
-            });
-        }
     }
 
     private void savePersonalInfoToFirebase() {
@@ -390,18 +380,8 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
             float weight = Float.parseFloat(weightStr);
             float height = Float.parseFloat(heightStr);
 
-            firebaseHelper.updatePersonalInfo(age, selectedGender, height, weight,
-                    new FirebaseHelper.OnCompleteListener() {
-                        @Override
-                        public void onSuccess() {
-                            // Silent success
-                        }
-
-                        @Override
-                        public void onFailure(String error) {
-                            // Silent fail
-                        }
-                    });
+            // coalesced with other quick edits, flushed on calculate or onPause
+            firebaseHelper.queuePersonalInfo(age, selectedGender, height, weight);
         } catch (NumberFormatException e) {
             // Invalid input
         }
@@ -434,7 +414,7 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
             progressSection.setVisibility(View.VISIBLE);
 
             // Calculate and display current progress
-            int progress = calculateProgress(startBmi, currentBmi, goalBmi);
+            int progress = (int) BmiMath.goalProgress(startBmi, currentBmi, goalBmi);
             progressBar.setProgress(progress);
 
             float bmiRemaining = Math.abs(goalBmi - currentBmi);
@@ -471,6 +451,7 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
 
                 goalBmi = goal;
                 startBmi = currentBmi; // Set start BMI to current BMI when setting goal
+                pbHealth.setGoalBmi(goalBmi);
 
                 float targetWeight = goalBmi * currentHeight * currentHeight;
 
@@ -504,25 +485,6 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
         }
     }
 
-    private int calculateProgress(float startBmi, float currentBmi, float goalBmi) {
-        // Calculate the total distance from start to goal
-        float totalDistance = Math.abs(goalBmi - startBmi);
-
-        // If there's no distance, we're already at goal
-        if (totalDistance == 0) {
-            return 100;
-        }
-
-        // Calculate how much progress has been made
-        float progressMade = Math.abs(startBmi - currentBmi);
-
-        // Calculate percentage
-        int percentage = (int) ((progressMade / totalDistance) * 100);
-
-        // Cap at 100%
-        return Math.min(100, Math.max(0, percentage));
-    }
-
     private void saveGoalToFirebase(float targetWeight, float targetBmi) {
         FirebaseUser currentUser = firebaseAuth.getCurrentUser();
 
@@ -601,28 +563,28 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
         MaterialButton btnSignOut = dialog.findViewById(R.id.btnSignOut);
         SwitchMaterial switchTheme = dialog.findViewById(R.id.switchTheme);
 
-        SharedPreferences prefs = getSharedPreferences("app_prefs", MODE_PRIVATE);
-        boolean darkMode = prefs.getBoolean("pref_dark_mode", false);
+        SharedPreferences prefs = getSharedPreferences(App.PREFS_NAME, MODE_PRIVATE);
+        boolean darkMode = prefs.getBoolean(App.KEY_DARK_MODE, false);
         switchTheme.setChecked(darkMode);
 
         switchTheme.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            prefs.edit().putBoolean("pref_dark_mode", isChecked).apply();
-            AppCompatDelegate.setDefaultNightMode(
-                    isChecked ? AppCompatDelegate.MODE_NIGHT_YES : AppCompatDelegate.MODE_NIGHT_NO
-            );
+            prefs.edit().putBoolean(App.KEY_DARK_MODE, isChecked).apply();
+            App.applyNightMode(isChecked);
             Snackbar.make(findViewById(R.id.main),
                     isChecked ? "Dark mode enabled" : "Light mode enabled",
                     Snackbar.LENGTH_SHORT).show();
         });
 
         btnSignOut.setOnClickListener(v -> {
-            firebaseHelper.signOut();
-            dialog.dismiss();
+            btnSignOut.setEnabled(false);
+            firebaseHelper.signOut(() -> {
+                dialog.dismiss();
 
-            Intent intent = new Intent(MainActivity.this, WelcomeActivity.class);
-            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-            startActivity(intent);
-            finish();
+                Intent intent = new Intent(MainActivity.this, WelcomeActivity.class);
+                intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                startActivity(intent);
+                finish();
+            });
         });
 
         dialog.show();
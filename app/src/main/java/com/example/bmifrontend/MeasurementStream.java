@@ -0,0 +1,92 @@
+package com.example.bmifrontend;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import Model.User;
+
+// Live view over a measurements query, delivered one child at a time.
+// Only the child that changed is parsed, so callers can patch their lists and
+// charts in place instead of reloading the whole subtree.
+public class MeasurementStream {
+
+    public interface Listener {
+        void onMeasurementAdded(String key, User.Measurement measurement);
+        void onMeasurementChanged(String key, User.Measurement measurement);
+        void onMeasurementRemoved(String key);
+        // Fires once, after the children that already existed when the stream opened
+        void onInitialLoadComplete();
+        void onFailure(String error);
+    }
+
+    private final Query query;
+    private final ChildEventListener childEventListener;
+    private final ValueEventListener initialLoadListener;
+
+    MeasurementStream(Query query, Listener listener) {
+        this.query = query;
+
+        this.childEventListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                User.Measurement measurement = snapshot.getValue(User.Measurement.class);
+                if (measurement != null) {
+                    measurement.setKey(snapshot.getKey());
+                    listener.onMeasurementAdded(snapshot.getKey(), measurement);
+                }
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                User.Measurement measurement = snapshot.getValue(User.Measurement.class);
+                if (measurement != null) {
+                    measurement.setKey(snapshot.getKey());
+                    listener.onMeasurementChanged(snapshot.getKey(), measurement);
+                }
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onMeasurementRemoved(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                // ordering is handled by the caller
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onFailure(error.getMessage());
+            }
+        };
+
+        // Value events for a query are raised after its initial child events,
+        // so this marks the end of the initial load without parsing anything
+        this.initialLoadListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                listener.onInitialLoadComplete();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onFailure(error.getMessage());
+            }
+        };
+
+        query.addChildEventListener(childEventListener);
+        query.addListenerForSingleValueEvent(initialLoadListener);
+    }
+
+    public void close() {
+        query.removeEventListener(childEventListener);
+        query.removeEventListener(initialLoadListener);
+    }
+}
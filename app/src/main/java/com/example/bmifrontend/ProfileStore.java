@@ -0,0 +1,50 @@
+package com.example.bmifrontend;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.auth.FirebaseUserMetadata;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Login-time profile persistence for sign-in, sign-up and guest entry. Profiles live
+// in the Realtime Database next to the rest of the user's data (users/{uid}/profile),
+// and each login is a single multi-path update carrying the profile fields and lastLogin.
+class ProfileStore {
+    private static final String TAG = "ProfileStore";
+
+    private final DatabaseReference usersRef;
+
+    ProfileStore() {
+        this.usersRef = FirebaseDatabase.getInstance().getReference().child(FirebaseHelper.USERS_PATH);
+    }
+
+    // Fire and forget: the write is queued in the local cache and synced in the
+    // background, so callers can navigate on right away. createdAt is the account's
+    // creation time from Firebase Auth, so accounts that predate this store get their
+    // real value on their next login. An empty username never overwrites a stored one.
+    void recordLogin(FirebaseUser user, @Nullable String username, String authProvider) {
+        long now = System.currentTimeMillis();
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("profile/email", user.getEmail() != null ? user.getEmail() : "");
+        if (username != null && !username.isEmpty()) {
+            updates.put("profile/username", username);
+        }
+        updates.put("profile/authProvider", authProvider);
+        updates.put("profile/guest", user.isAnonymous());
+        updates.put("profile/lastLogin", now);
+        FirebaseUserMetadata metadata = user.getMetadata();
+        if (metadata != null) {
+            updates.put("profile/createdAt", metadata.getCreationTimestamp());
+        }
+
+        usersRef.child(user.getUid()).updateChildren(updates)
+                .addOnFailureListener(e -> Log.e(TAG, "Error recording login", e));
+    }
+}
@@ -42,11 +42,8 @@ import com.google.firebase.auth.FirebaseAuthInvalidCredentialsException;
 import com.google.firebase.auth.FirebaseAuthInvalidUserException;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.GoogleAuthProvider;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 public class SigninActivity extends AppCompatActivity {
 
@@ -62,10 +59,9 @@ public class SigninActivity extends AppCompatActivity {
     private ImageButton btnBack;
     private CallbackManager callbackManager;
 
-
     // Firebase
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
+    private ProfileStore profileStore;
     private GoogleSignInClient mGoogleSignInClient;
 
     @Override
@@ -82,7 +78,7 @@ public class SigninActivity extends AppCompatActivity {
 
     private void initializeFirebase() {
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        profileStore = new ProfileStore();
     }
 
     private void initializeViews() {
@@ -170,6 +166,10 @@ public class SigninActivity extends AppCompatActivity {
         mAuth.signInWithEmailAndPassword(email, password)
                 .addOnCompleteListener(this, task -> {
                     if (task.isSuccessful()) {
+                        FirebaseUser user = mAuth.getCurrentUser();
+                        if (user != null) {
+                            profileStore.recordLogin(user, user.getDisplayName(), "email");
+                        }
                         // Login success - navigate immediately
                         navigateToMainActivity();
                     } else {
@@ -224,6 +224,7 @@ public class SigninActivity extends AppCompatActivity {
     }
 
     private void setupFacebookSignIn() {
+        FacebookInitializer.ensureInitialized(this);
         callbackManager = CallbackManager.Factory.create();
 
         LoginManager.getInstance().registerCallback(callbackManager,
@@ -299,8 +300,8 @@ public class SigninActivity extends AppCompatActivity {
                     if (task.isSuccessful()) {
                         FirebaseUser user = mAuth.getCurrentUser();
                         if (user != null) {
-                            // Save to Firestore in background (non-blocking)
-                            saveUserToFirestoreAsync(user, "facebook");
+                            // Save profile and last login in background (non-blocking)
+                            profileStore.recordLogin(user, user.getDisplayName(), "facebook");
                             // Navigate immediately
                             navigateToMainActivity();
                         }
@@ -333,18 +334,6 @@ public class SigninActivity extends AppCompatActivity {
                 });
     }
 
-    private void saveUserToFirestoreAsync(FirebaseUser user, String authProvider) {
-        Map<String, Object> userData = new HashMap<>();
-        userData.put("username", user.getDisplayName() != null ? user.getDisplayName() : "");
-        userData.put("email", user.getEmail());
-        userData.put("authProvider", authProvider);
-        userData.put("isGuest", false);
-        userData.put("createdAt", System.currentTimeMillis());
-
-        // Fire and forget - save in background, don't wait for completion
-        db.collection("users").document(user.getUid()).set(userData);
-    }
-
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
@@ -383,8 +372,8 @@ public class SigninActivity extends AppCompatActivity {
                     if (task.isSuccessful()) {
                         FirebaseUser user = mAuth.getCurrentUser();
                         if (user != null) {
-                            // Save to Firestore in background (non-blocking)
-                            saveUserToFirestoreAsync(user, "google");
+                            // Save profile and last login in background (non-blocking)
+                            profileStore.recordLogin(user, user.getDisplayName(), "google");
                             // Navigate immediately
                             navigateToMainActivity();
                         }
@@ -409,5 +398,4 @@ public class SigninActivity extends AppCompatActivity {
         finish();
     }
 
-
 }
\ No newline at end of file
@@ -40,11 +40,8 @@ import com.google.firebase.auth.FirebaseAuthUserCollisionException;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.GoogleAuthProvider;
 import com.google.firebase.auth.UserProfileChangeRequest;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.regex.Pattern;
 
 public class SignupActivity extends AppCompatActivity {
@@ -62,7 +59,7 @@ public class SignupActivity extends AppCompatActivity {
 
     // Firebase
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
+    private ProfileStore profileStore;
     private GoogleSignInClient mGoogleSignInClient;
     private CallbackManager mCallbackManager;
 
@@ -85,7 +82,7 @@ public class SignupActivity extends AppCompatActivity {
 
     private void initializeFirebase() {
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        profileStore = new ProfileStore();
     }
 
     private void initializeViews() {
@@ -288,43 +285,23 @@ public class SignupActivity extends AppCompatActivity {
         user.updateProfile(profileUpdates)
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
-                        saveUserToFirestore(user, username, "email");
+                        saveProfile(user, username);
                     } else {
                         String errorMsg = "Failed to update profile";
                         if (task.getException() != null) {
                             errorMsg += ": " + task.getException().getMessage();
                         }
                         Toast.makeText(SignupActivity.this, errorMsg, Toast.LENGTH_LONG).show();
-                        // Still save to Firestore even if profile update fails
-                        saveUserToFirestore(user, username, "email");
+                        // Still save the profile even if the display name update fails
+                        saveProfile(user, username);
                     }
                 });
     }
 
-    private void saveUserToFirestore(FirebaseUser user, String username, String authProvider) {
-        Map<String, Object> userData = new HashMap<>();
-        userData.put("username", username);
-        userData.put("email", user.getEmail());
-        userData.put("authProvider", authProvider);
-        userData.put("isGuest", false);
-        userData.put("createdAt", System.currentTimeMillis());
-
-        db.collection("users").document(user.getUid())
-                .set(userData)
-                .addOnSuccessListener(aVoid -> navigateToMainActivity())
-                .addOnFailureListener(e -> navigateToMainActivity());
-    }
-
-    private void saveUserToFirestoreAsync(FirebaseUser user, String username, String authProvider) {
-        Map<String, Object> userData = new HashMap<>();
-        userData.put("username", username);
-        userData.put("email", user.getEmail());
-        userData.put("authProvider", authProvider);
-        userData.put("isGuest", false);
-        userData.put("createdAt", System.currentTimeMillis());
-
-        // Fire and forget - save in background, don't wait for completion
-        db.collection("users").document(user.getUid()).set(userData);
+    private void saveProfile(FirebaseUser user, String username) {
+        // queued locally and synced in the background, no need to wait for it
+        profileStore.recordLogin(user, username, "email");
+        navigateToMainActivity();
     }
 
     private void setupGoogleSignIn() {
@@ -346,6 +323,7 @@ public class SignupActivity extends AppCompatActivity {
     }
 
     private void setupFacebookSignIn() {
+        FacebookInitializer.ensureInitialized(this);
         try {
             mCallbackManager = CallbackManager.Factory.create();
 
@@ -426,8 +404,8 @@ public class SignupActivity extends AppCompatActivity {
                         FirebaseUser user = mAuth.getCurrentUser();
                         if (user != null) {
                             String username = user.getDisplayName() != null ? user.getDisplayName() : "";
-                            // Save to Firestore in background (non-blocking)
-                            saveUserToFirestoreAsync(user, username, "facebook");
+                            // Save profile and last login in background (non-blocking)
+                            profileStore.recordLogin(user, username, "facebook");
                             // Navigate immediately
                             navigateToMainActivity();
                         }
@@ -466,8 +444,8 @@ public class SignupActivity extends AppCompatActivity {
                         FirebaseUser user = mAuth.getCurrentUser();
                         if (user != null) {
                             String username = user.getDisplayName() != null ? user.getDisplayName() : "";
-                            // Save to Firestore in background (non-blocking)
-                            saveUserToFirestoreAsync(user, username, "google");
+                            // Save profile and last login in background (non-blocking)
+                            profileStore.recordLogin(user, username, "google");
                             // Navigate immediately
                             navigateToMainActivity();
                         }
@@ -0,0 +1,43 @@
+package com.example.bmifrontend;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.tracing.Trace;
+
+// Async trace section spanning a cold start, from App.onCreate to the first frame
+// drawn by the first Activity. Only the first Activity to call endOnFirstFrame ends it.
+final class StartupTrace {
+    private static final String COLD_START = "ColdStart";
+    private static final int COOKIE = 0;
+
+    private static boolean open;
+
+    private StartupTrace() {
+    }
+
+    static void beginColdStart() {
+        open = true;
+        Trace.beginAsyncSection(COLD_START, COOKIE);
+    }
+
+    static void endOnFirstFrame(Activity activity) {
+        if (!open) return;
+        open = false;
+
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            private boolean drawn;
+
+            @Override
+            public void onDraw() {
+                if (drawn) return;
+                drawn = true;
+                Trace.endAsyncSection(COLD_START, COOKIE);
+                // listeners cannot be removed from inside onDraw
+                decorView.post(() -> decorView.getViewTreeObserver().removeOnDrawListener(this));
+            }
+        });
+    }
+}
@@ -2,7 +2,10 @@ package com.example.bmifrontend;
 
 import android.graphics.Color;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.MenuItem;
+import android.view.MotionEvent;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.Spinner;
@@ -18,30 +21,78 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.github.mikephil.charting.listener.ChartTouchListener;
+import com.github.mikephil.charting.listener.OnChartGestureListener;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import Model.MeasurementSeries;
+import Model.RangeStats;
 import Model.User;
 
 public class StatisticsActivity extends AppCompatActivity {
 
+    // lines with more points than this are drawn without circles
+    private static final int MAX_POINTS_WITH_CIRCLES = 60;
+
+    // data sets of each chart, in order; the first is the readings, the rest are overlays
+    private static final MeasurementSeries.Column[] WEIGHT_COLUMNS = {
+            MeasurementSeries.Column.WEIGHT,
+            MeasurementSeries.Column.WEIGHT_EMA,
+            MeasurementSeries.Column.WEIGHT_WEEK_AVERAGE,
+            MeasurementSeries.Column.WEIGHT_MONTH_AVERAGE
+    };
+    private static final MeasurementSeries.Column[] BMI_COLUMNS = {
+            MeasurementSeries.Column.BMI
+    };
+
     private LineChart weightChart, bmiChart;
     private TextView tvCurrentWeight, tvGoalWeight, tvNoData;
+    private TextView tvStatsScope, tvStatAverage, tvStatMin, tvStatMax, tvStatStdDev, tvStatNetChange, tvStatWeeklyRate;
     private Spinner spinnerTimeRange;
 
-    private List<User.Measurement> allMeasurements = new ArrayList<>();
-    private User userData;
+    // sorted oldest first, filled and patched in place by the stream on the main thread
+    private MeasurementSeries series = new MeasurementSeries();
+    // timestamp of each key in the series, to locate it on change and remove
+    private final Map<String, Long> timestampsByKey = new HashMap<>();
+    private User.PersonalInfo personalInfo;
     private FirebaseHelper firebaseHelper;
     private FirebaseAuth firebaseAuth;
+    private MeasurementStream measurementStream;
+    private boolean initialLoadDone = false;
+    private long rangeStartTime = 0;
+    // reused for every time range switch
+    private final Calendar rangeCalendar = Calendar.getInstance();
+    private final MeasurementSeries.Range visibleRange = new MeasurementSeries.Range();
+    // scratch for downsampling
+    private final MeasurementSeries.Range sampleRange = new MeasurementSeries.Range();
+    private int[] sampleIndices = new int[0];
+    private ResampleOnGesture weightResampler, bmiResampler;
+
+    // weight statistics for the series version they were built from; rebuilt on chartExecutor
+    private RangeStats rangeStats;
+    private int rangeStatsVersion;
+    private boolean rangeStatsBuildPending = false;
+    private final RangeStats.Summary statsSummary = new RangeStats.Summary();
+
+    // LineData is built on chartExecutor; a newer generation makes older builds stale
+    private final ExecutorService chartExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger chartGeneration = new AtomicInteger();
+    // chart and stats builds still reading the series; while any run, it is copied before being patched
+    private int buildsInFlight = 0;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -66,6 +117,13 @@ public class StatisticsActivity extends AppCompatActivity {
         tvGoalWeight = findViewById(R.id.tvGoalWeight);
         tvNoData = findViewById(R.id.tvNoData);
         spinnerTimeRange = findViewById(R.id.spinnerTimeRange);
+        tvStatsScope = findViewById(R.id.tvStatsScope);
+        tvStatAverage = findViewById(R.id.tvStatAverage);
+        tvStatMin = findViewById(R.id.tvStatMin);
+        tvStatMax = findViewById(R.id.tvStatMax);
+        tvStatStdDev = findViewById(R.id.tvStatStdDev);
+        tvStatNetChange = findViewById(R.id.tvStatNetChange);
+        tvStatWeeklyRate = findViewById(R.id.tvStatWeeklyRate);
     }
 
     private void setupToolbar() {
@@ -88,41 +146,89 @@ public class StatisticsActivity extends AppCompatActivity {
 
         showLoadingState(true);
 
-        firebaseHelper.getUserData(new FirebaseHelper.OnUserDataListener() {
+        firebaseHelper.getPersonalInfo(new FirebaseHelper.OnPersonalInfoListener() {
             @Override
-            public void onSuccess(User user) {
-                showLoadingState(false);
-                userData = user;
-                processUserData();
+            public void onSuccess(User.PersonalInfo info) {
+                personalInfo = info;
+                updateStatistics();
             }
 
             @Override
             public void onFailure(String error) {
-                showLoadingState(false);
-                showNoDataMessage("No data available yet. Start tracking your BMI!");
+                // summary cards keep their placeholders
             }
         });
+
+        measurementStream = firebaseHelper.openMeasurementStream(null, null, null, null,
+                new MeasurementStream.Listener() {
+                    @Override
+                    public void onMeasurementAdded(String key, User.Measurement measurement) {
+                        // the query is ordered by timestamp, so the initial load appends at the end
+                        timestampsByKey.put(key, measurement.getTimestamp());
+                        // mutableSeries() clears buildsInFlight, so look first: a pending build
+                        // would replace the chart without this point, so rebuild instead
+                        boolean building = buildsInFlight > 0;
+                        int index = mutableSeries().insert(measurement);
+                        if (!initialLoadDone) return;
+
+                        boolean isNewest = index == series.size() - 1;
+                        if (isNewest && measurement.getTimestamp() >= rangeStartTime && !building
+                                && weightChart.getData() != null && bmiChart.getData() != null) {
+                            tvNoData.setVisibility(View.GONE);
+                            visibleRange.set(visibleRange.getOffset(), visibleRange.getLength() + 1);
+                            appendChartEntry(weightChart, WEIGHT_COLUMNS, index);
+                            appendChartEntry(bmiChart, BMI_COLUMNS, index);
+                            ensureRangeStats();
+                        } else {
+                            processUserData();
+                        }
+                    }
+
+                    @Override
+                    public void onMeasurementChanged(String key, User.Measurement measurement) {
+                        Long previous = timestampsByKey.put(key, measurement.getTimestamp());
+                        MeasurementSeries target = mutableSeries();
+                        if (previous != null) {
+                            target.remove(key, previous);
+                        }
+                        target.insert(measurement);
+                        if (initialLoadDone) {
+                            processUserData();
+                        }
+                    }
+
+                    @Override
+                    public void onMeasurementRemoved(String key) {
+                        Long previous = timestampsByKey.remove(key);
+                        if (previous == null) return;
+                        mutableSeries().remove(key, previous);
+                        if (initialLoadDone) {
+                            processUserData();
+                        }
+                    }
+
+                    @Override
+                    public void onInitialLoadComplete() {
+                        initialLoadDone = true;
+                        showLoadingState(false);
+                        processUserData();
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        showLoadingState(false);
+                        showNoDataMessage("No data available yet. Start tracking your BMI!");
+                    }
+                });
     }
 
     private void processUserData() {
-        if (userData == null) return;
-
-        // Extract measurements from map
-        if (userData.getMeasurements() != null && !userData.getMeasurements().isEmpty()) {
-            allMeasurements = new ArrayList<>(userData.getMeasurements().values());
-
-            // Sort by timestamp
-            Collections.sort(allMeasurements, new Comparator<User.Measurement>() {
-                @Override
-                public int compare(User.Measurement m1, User.Measurement m2) {
-                    return Long.compare(m1.getTimestamp(), m2.getTimestamp());
-                }
-            });
-
+        if (!series.isEmpty()) {
             tvNoData.setVisibility(View.GONE);
 
             // Apply default filter (1 Month - position 1)
             filterMeasurementsByTimeRange(spinnerTimeRange.getSelectedItemPosition());
+            ensureRangeStats();
         } else {
             showNoDataMessage("No measurements yet. Calculate your BMI to start tracking!");
         }
@@ -130,6 +236,40 @@ public class StatisticsActivity extends AppCompatActivity {
         updateStatistics();
     }
 
+    // The series, copied first if a chart build on the worker is still reading it
+    private MeasurementSeries mutableSeries() {
+        if (buildsInFlight > 0) {
+            // the builds keep the old arrays; the copy is ours alone
+            series = series.copy();
+            buildsInFlight = 0;
+        }
+        return series;
+    }
+
+    // Add series[index] to the end of each of the chart's data sets; the trend
+    // overlays already include it, since appending only extends them
+    private void appendChartEntry(LineChart chart, MeasurementSeries.Column[] columns, int index) {
+        LineData data = chart.getData();
+        long timestamp = series.timestampAt(index);
+        float value = series.valueAt(columns[0], index);
+
+        // axes are pinned to the range, so stretch them to the new point
+        chart.getXAxis().setAxisMaximum(timestamp);
+        YAxis leftAxis = chart.getAxisLeft();
+        if (value > leftAxis.getAxisMaximum()) {
+            leftAxis.setAxisMaximum(value + axisPadding(leftAxis.getAxisMinimum(), value));
+        } else if (value < leftAxis.getAxisMinimum()) {
+            leftAxis.setAxisMinimum(value - axisPadding(value, leftAxis.getAxisMaximum()));
+        }
+
+        for (int i = 0; i < columns.length && i < data.getDataSetCount(); i++) {
+            data.addEntry(new Entry(timestamp, series.valueAt(columns[i], index)), i);
+        }
+        data.notifyDataChanged();
+        chart.notifyDataSetChanged();
+        chart.invalidate();
+    }
+
     private void setupCharts() {
         setupWeightChart();
         setupBmiChart();
@@ -156,7 +296,11 @@ public class StatisticsActivity extends AppCompatActivity {
         leftAxis.setGridColor(Color.LTGRAY);
 
         weightChart.getAxisRight().setEnabled(false);
-        weightChart.getLegend().setEnabled(false);
+        // names the trend overlays
+        weightChart.getLegend().setEnabled(true);
+
+        weightResampler = new ResampleOnGesture(weightChart, WEIGHT_COLUMNS);
+        weightChart.setOnChartGestureListener(weightResampler);
     }
 
     private void setupBmiChart() {
@@ -181,74 +325,262 @@ public class StatisticsActivity extends AppCompatActivity {
 
         bmiChart.getAxisRight().setEnabled(false);
         bmiChart.getLegend().setEnabled(false);
+
+        bmiResampler = new ResampleOnGesture(bmiChart, BMI_COLUMNS);
+        bmiChart.setOnChartGestureListener(bmiResampler);
     }
 
-    private void updateChartData(List<User.Measurement> measurements) {
-        if (measurements.isEmpty()) {
+    // Builds both charts' LineData on chartExecutor and posts only setData and invalidate
+    // back to the main thread. A newer call makes any build still queued or running stale.
+    private void updateChartData(MeasurementSeries.Range range) {
+        final int generation = chartGeneration.incrementAndGet();
+
+        if (range.isEmpty()) {
             weightChart.clear();
             bmiChart.clear();
             weightChart.invalidate();
             bmiChart.invalidate();
+            updateStatsPanel();
+            return;
+        }
+
+        final MeasurementSeries source = series;
+        final int offset = range.getOffset();
+        final int length = range.getLength();
+        // whole range at roughly one point per pixel; zooming in re-samples the window
+        final int weightPoints = maxPoints(weightChart);
+        final int bmiPoints = maxPoints(bmiChart);
+
+        buildsInFlight++;
+        chartExecutor.execute(() -> {
+            ChartBuild weightBuild = null;
+            ChartBuild bmiBuild = null;
+            try {
+                MeasurementSeries.Range sourceRange = new MeasurementSeries.Range().set(offset, length);
+                if (generation == chartGeneration.get()) {
+                    weightBuild = buildChart(source, WEIGHT_COLUMNS, sourceRange,
+                            weightPoints, "Weight", Color.parseColor("#2196F3"));
+                }
+                if (generation == chartGeneration.get()) {
+                    bmiBuild = buildChart(source, BMI_COLUMNS, sourceRange,
+                            bmiPoints, "BMI", Color.parseColor("#FF5722"));
+                }
+            } finally {
+                final ChartBuild weight = weightBuild;
+                final ChartBuild bmi = bmiBuild;
+                mainHandler.post(() -> {
+                    if (source == series) {
+                        buildsInFlight--;
+                    }
+                    if (weight == null || bmi == null || generation != chartGeneration.get() || isDestroyed()) {
+                        return;
+                    }
+                    applyChart(weightChart, weightResampler, weight);
+                    applyChart(bmiChart, bmiResampler, bmi);
+                    updateStatsPanel();
+                });
+            }
+        });
+    }
+
+    // Rebuild rangeStats on chartExecutor if the series changed since it was built
+    private void ensureRangeStats() {
+        if (rangeStatsBuildPending) return;
+        if (rangeStats != null && rangeStatsVersion == series.getVersion()) return;
+
+        final MeasurementSeries source = series;
+        final int version = source.getVersion();
+        rangeStatsBuildPending = true;
+        buildsInFlight++;
+        chartExecutor.execute(() -> {
+            RangeStats built = null;
+            try {
+                built = RangeStats.build(source, MeasurementSeries.Column.WEIGHT);
+            } finally {
+                final RangeStats result = built;
+                mainHandler.post(() -> {
+                    if (source == series) {
+                        buildsInFlight--;
+                    }
+                    rangeStatsBuildPending = false;
+                    if (result == null || isDestroyed()) return;
+
+                    rangeStats = result;
+                    rangeStatsVersion = version;
+                    updateStatsPanel();
+                    // pick up changes that arrived during the build
+                    ensureRangeStats();
+                });
+            }
+        });
+    }
+
+    // Weight summary for the weight chart's visible window when zoomed in, otherwise for the
+    // selected range. O(1) per call, so it can follow pinch and drag gestures.
+    private void updateStatsPanel() {
+        if (rangeStats == null) return;
+
+        if (weightChart.getData() != null && !weightChart.isFullyZoomedOut()) {
+            tvStatsScope.setText("Visible window");
+            rangeStats.query((long) weightChart.getLowestVisibleX(),
+                    (long) Math.ceil(weightChart.getHighestVisibleX()), statsSummary);
+        } else {
+            tvStatsScope.setText("Selected range");
+            rangeStats.query(rangeStartTime, Long.MAX_VALUE, statsSummary);
+        }
+
+        if (statsSummary.getCount() == 0) {
+            tvStatAverage.setText("--");
+            tvStatMin.setText("--");
+            tvStatMax.setText("--");
+            tvStatStdDev.setText("--");
+            tvStatNetChange.setText("--");
+            tvStatWeeklyRate.setText("--");
             return;
         }
 
-        // Prepare weight data
-        List<Entry> weightEntries = new ArrayList<>();
-        List<Entry> bmiEntries = new ArrayList<>();
-
-        for (User.Measurement m : measurements) {
-            weightEntries.add(new Entry(m.getTimestamp(), m.getWeight()));
-            bmiEntries.add(new Entry(m.getTimestamp(), m.getBmi()));
-        }
-
-        // Weight chart
-        LineDataSet weightDataSet = new LineDataSet(weightEntries, "Weight");
-        weightDataSet.setColor(Color.parseColor("#2196F3"));
-        weightDataSet.setCircleColor(Color.parseColor("#2196F3"));
-        weightDataSet.setLineWidth(2f);
-        weightDataSet.setCircleRadius(4f);
-        weightDataSet.setDrawCircleHole(false);
-        weightDataSet.setValueTextSize(9f);
-        weightDataSet.setDrawFilled(true);
-        weightDataSet.setFillColor(Color.parseColor("#2196F3"));
-        weightDataSet.setFillAlpha(50);
-        weightDataSet.setMode(LineDataSet.Mode.CUBIC_BEZIER);
-
-        LineData weightLineData = new LineData(weightDataSet);
-        weightChart.setData(weightLineData);
-        weightChart.notifyDataSetChanged();
-        weightChart.invalidate();
-        weightChart.animateX(500);
-
-        // BMI chart
-        LineDataSet bmiDataSet = new LineDataSet(bmiEntries, "BMI");
-        bmiDataSet.setColor(Color.parseColor("#FF5722"));
-        bmiDataSet.setCircleColor(Color.parseColor("#FF5722"));
-        bmiDataSet.setLineWidth(2f);
-        bmiDataSet.setCircleRadius(4f);
-        bmiDataSet.setDrawCircleHole(false);
-        bmiDataSet.setValueTextSize(9f);
-        bmiDataSet.setDrawFilled(true);
-        bmiDataSet.setFillColor(Color.parseColor("#FF5722"));
-        bmiDataSet.setFillAlpha(50);
-        bmiDataSet.setMode(LineDataSet.Mode.CUBIC_BEZIER);
-
-        LineData bmiLineData = new LineData(bmiDataSet);
-        bmiChart.setData(bmiLineData);
-        bmiChart.notifyDataSetChanged();
-        bmiChart.invalidate();
-        bmiChart.animateX(500);
+        Locale locale = Locale.getDefault();
+        tvStatAverage.setText(String.format(locale, "%.1f kg", statsSummary.getAverage()));
+        tvStatMin.setText(String.format(locale, "%.1f kg", statsSummary.getMin()));
+        tvStatMax.setText(String.format(locale, "%.1f kg", statsSummary.getMax()));
+        tvStatStdDev.setText(String.format(locale, "%.1f kg", statsSummary.getStandardDeviation()));
+        tvStatNetChange.setText(String.format(locale, "%+.1f kg", statsSummary.getNetChange()));
+        if (statsSummary.getCount() > 1) {
+            tvStatWeeklyRate.setText(String.format(locale, "%+.2f kg", statsSummary.getWeeklyRate()));
+        } else {
+            tvStatWeeklyRate.setText("--");
+        }
+    }
+
+    // Runs on chartExecutor; touches only its arguments
+    private static ChartBuild buildChart(MeasurementSeries source, MeasurementSeries.Column[] columns,
+                                         MeasurementSeries.Range range, int maxPoints, String label, int color) {
+        MeasurementSeries.Column column = columns[0];
+        int[] indices = new int[Math.min(range.getLength(), maxPoints)];
+        List<Entry> entries = sampleEntries(source, column, range, maxPoints, indices);
+
+        LineDataSet dataSet = new LineDataSet(entries, label);
+        dataSet.setColor(color);
+        dataSet.setCircleColor(color);
+        dataSet.setLineWidth(2f);
+        dataSet.setCircleRadius(4f);
+        dataSet.setDrawCircles(entries.size() <= MAX_POINTS_WITH_CIRCLES);
+        dataSet.setDrawCircleHole(false);
+        dataSet.setValueTextSize(9f);
+        dataSet.setDrawFilled(true);
+        dataSet.setFillColor(color);
+        dataSet.setFillAlpha(50);
+        dataSet.setMode(LineDataSet.Mode.CUBIC_BEZIER);
+
+        LineData lineData = new LineData(dataSet);
+        for (int i = 1; i < columns.length; i++) {
+            lineData.addDataSet(trendDataSet(sampleEntries(source, columns[i], range, maxPoints, indices),
+                    columns[i]));
+        }
+
+        // axes are pinned to the whole range so re-sampling a zoomed window doesn't rescale them
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int i = range.getOffset(); i < range.getEnd(); i++) {
+            float value = source.valueAt(column, i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        float padding = axisPadding(min, max);
+
+        return new ChartBuild(lineData,
+                source.timestampAt(range.getOffset()), source.timestampAt(range.getEnd() - 1),
+                min - padding, max + padding);
+    }
+
+    // Thin line without points for a smoothed overlay
+    private static LineDataSet trendDataSet(List<Entry> entries, MeasurementSeries.Column column) {
+        String label;
+        int color;
+        switch (column) {
+            case WEIGHT_EMA:
+                label = "Trend";
+                color = Color.parseColor("#0D47A1");
+                break;
+            case WEIGHT_WEEK_AVERAGE:
+                label = "7-day avg";
+                color = Color.parseColor("#FF9800");
+                break;
+            case WEIGHT_MONTH_AVERAGE:
+            default:
+                label = "30-day avg";
+                color = Color.parseColor("#9C27B0");
+                break;
+        }
+
+        LineDataSet dataSet = new LineDataSet(entries, label);
+        dataSet.setColor(color);
+        dataSet.setLineWidth(1.5f);
+        dataSet.setDrawCircles(false);
+        dataSet.setDrawValues(false);
+        dataSet.setHighlightEnabled(false);
+        dataSet.setMode(LineDataSet.Mode.LINEAR);
+        return dataSet;
+    }
+
+    private void applyChart(LineChart chart, ResampleOnGesture resampler, ChartBuild build) {
+        chart.getXAxis().setAxisMinimum(build.xMin);
+        chart.getXAxis().setAxisMaximum(build.xMax);
+        chart.getAxisLeft().setAxisMinimum(build.yMin);
+        chart.getAxisLeft().setAxisMaximum(build.yMax);
+
+        chart.setData(build.data);
+        chart.fitScreen();
+        resampler.reset();
+        chart.notifyDataSetChanged();
+        chart.invalidate();
+        chart.animateX(500);
+    }
+
+    // LTTB-downsample a column of the live series over range to at most maxPoints entries
+    private List<Entry> sampleEntries(MeasurementSeries.Column column, MeasurementSeries.Range range, int maxPoints) {
+        int capacity = Math.min(range.getLength(), maxPoints);
+        if (sampleIndices.length < capacity) {
+            sampleIndices = new int[capacity];
+        }
+        return sampleEntries(series, column, range, maxPoints, sampleIndices);
+    }
+
+    private static List<Entry> sampleEntries(MeasurementSeries source, MeasurementSeries.Column column,
+                                             MeasurementSeries.Range range, int maxPoints, int[] indices) {
+        int count = source.downsample(column, range, maxPoints, indices);
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = indices[i];
+            entries.add(new Entry(source.timestampAt(index), source.valueAt(column, index)));
+        }
+        return entries;
+    }
+
+    // One point per pixel of plot width
+    private int maxPoints(LineChart chart) {
+        int width = (int) chart.getViewPortHandler().contentWidth();
+        if (width <= 0) {
+            // not laid out yet
+            width = getResources().getDisplayMetrics().widthPixels;
+        }
+        return Math.max(width, 3);
+    }
+
+    private static float axisPadding(float min, float max) {
+        return Math.max((max - min) * 0.1f, 0.5f);
     }
 
     private void updateStatistics() {
-        if (userData == null || userData.getPersonalInfo() == null) return;
+        if (personalInfo == null) return;
 
-        User.PersonalInfo info = userData.getPersonalInfo();
-        User.Goals goals = userData.getGoals();
+        User.PersonalInfo info = personalInfo;
 
-        // Current and goal weight
-        if (info.getCurrentWeight() > 0) {
-            tvCurrentWeight.setText(String.format(Locale.getDefault(), "%.1f kg", info.getCurrentWeight()));
+        // Current weight from the latest reading, falling back to the profile
+        float currentWeight = series.isEmpty()
+                ? info.getCurrentWeight() : series.weightAt(series.size() - 1);
+        if (currentWeight > 0) {
+            tvCurrentWeight.setText(String.format(Locale.getDefault(), "%.1f kg", currentWeight));
         } else {
             tvCurrentWeight.setText("--");
         }
@@ -279,50 +611,41 @@ public class StatisticsActivity extends AppCompatActivity {
     }
 
     private void filterMeasurementsByTimeRange(int position) {
-        if (allMeasurements.isEmpty()) {
+        if (series.isEmpty()) {
             return;
         }
 
-        Calendar cal = Calendar.getInstance();
-        long startTime;
+        rangeStartTime = rangeStartFor(position);
+        series.range(rangeStartTime, Long.MAX_VALUE, visibleRange);
+
+        updateChartData(visibleRange);
+    }
+
+    // Start of the spinner's time range, or 0 for all time
+    private long rangeStartFor(int position) {
+        Calendar cal = rangeCalendar;
+        cal.setTimeInMillis(System.currentTimeMillis());
 
         switch (position) {
             case 0: // 7 days
                 cal.add(Calendar.DAY_OF_YEAR, -7);
-                startTime = cal.getTimeInMillis();
-                break;
+                return cal.getTimeInMillis();
             case 1: // 1 month
                 cal.add(Calendar.MONTH, -1);
-                startTime = cal.getTimeInMillis();
-                break;
+                return cal.getTimeInMillis();
             case 2: // 3 month
                 cal.add(Calendar.MONTH, -3);
-                startTime = cal.getTimeInMillis();
-                break;
+                return cal.getTimeInMillis();
             case 3: // 6 month
                 cal.add(Calendar.MONTH, -6);
-                startTime = cal.getTimeInMillis();
-                break;
+                return cal.getTimeInMillis();
             case 4: // year
                 cal.add(Calendar.YEAR, -1);
-                startTime = cal.getTimeInMillis();
-                break;
+                return cal.getTimeInMillis();
             case 5: // all time
             default:
-                startTime = 0;
-                break;
-        }
-
-        // filter measurements
-        List<User.Measurement> filteredMeasurements = new ArrayList<>();
-        for (User.Measurement m : allMeasurements) {
-            if (m.getTimestamp() >= startTime) {
-                filteredMeasurements.add(m);
-            }
+                return 0;
         }
-
-
-        updateChartData(filteredMeasurements);
     }
 
     private void showLoadingState(boolean loading) {
@@ -333,12 +656,23 @@ public class StatisticsActivity extends AppCompatActivity {
     }
 
     private void showNoDataMessage(String message) {
+        // drop any chart build still on its way
+        chartGeneration.incrementAndGet();
         tvNoData.setVisibility(View.VISIBLE);
         tvNoData.setText(message);
         weightChart.clear();
         bmiChart.clear();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (measurementStream != null) {
+            measurementStream.close();
+        }
+        chartExecutor.shutdownNow();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
@@ -348,6 +682,135 @@ public class StatisticsActivity extends AppCompatActivity {
         return super.onOptionsItemSelected(item);
     }
 
+    // LineData for one chart and the axis bounds it was built for
+    private static class ChartBuild {
+        final LineData data;
+        final float xMin, xMax, yMin, yMax;
+
+        ChartBuild(LineData data, float xMin, float xMax, float yMin, float yMax) {
+            this.data = data;
+            this.xMin = xMin;
+            this.xMax = xMax;
+            this.yMin = yMin;
+            this.yMax = yMax;
+        }
+    }
+
+    // Re-samples the visible window at screen resolution as the user zooms and pans,
+    // so the number of rendered points depends on the chart width, not the history size
+    private class ResampleOnGesture implements OnChartGestureListener {
+        private final LineChart chart;
+        private final MeasurementSeries.Column[] columns;
+
+        // x span covered by the current sample, and the visible span it was taken at
+        private float sampledFrom, sampledTo, sampledVisibleSpan;
+
+        ResampleOnGesture(LineChart chart, MeasurementSeries.Column[] columns) {
+            this.chart = chart;
+            this.columns = columns;
+        }
+
+        // The chart was just loaded with the whole range
+        void reset() {
+            sampledFrom = -Float.MAX_VALUE;
+            sampledTo = Float.MAX_VALUE;
+            sampledVisibleSpan = chart.getXAxis().getAxisMaximum() - chart.getXAxis().getAxisMinimum();
+        }
+
+        private void resampleIfStale() {
+            float low = chart.getLowestVisibleX();
+            float high = chart.getHighestVisibleX();
+            // panned past the sample, or zoomed in enough to show gaps between points
+            if (low < sampledFrom || high > sampledTo || (high - low) * 2 < sampledVisibleSpan) {
+                resample();
+            }
+        }
+
+        private void resample() {
+            LineData data = chart.getData();
+            if (data == null || visibleRange.isEmpty()) return;
+
+            float low = chart.getLowestVisibleX();
+            float high = chart.getHighestVisibleX();
+            float span = high - low;
+
+            // one extra screen each side so short pans stay covered
+            float from = low - span;
+            float to = high + span;
+            series.range((long) from, (long) to + 1, sampleRange);
+
+            // plus the neighbouring points so the line runs off screen instead of stopping short
+            int start = Math.max(sampleRange.getOffset() - 1, visibleRange.getOffset());
+            int end = Math.min(sampleRange.getEnd() + 1, visibleRange.getEnd());
+            sampleRange.set(start, Math.max(end - start, 0));
+
+            int maxPoints = maxPoints(chart) * 3;
+            for (int i = 0; i < columns.length && i < data.getDataSetCount(); i++) {
+                List<Entry> entries = sampleEntries(columns[i], sampleRange, maxPoints);
+                LineDataSet dataSet = (LineDataSet) data.getDataSetByIndex(i);
+                dataSet.setValues(entries);
+                if (i == 0) {
+                    dataSet.setDrawCircles(entries.size() <= MAX_POINTS_WITH_CIRCLES);
+                }
+            }
+            data.notifyDataChanged();
+            chart.notifyDataSetChanged();
+            chart.invalidate();
+
+            sampledFrom = from;
+            sampledTo = to;
+            sampledVisibleSpan = span;
+        }
+
+        private void onViewportChanged() {
+            if (chart == weightChart) {
+                updateStatsPanel();
+            }
+        }
+
+        @Override
+        public void onChartScale(MotionEvent me, float scaleX, float scaleY) {
+            resampleIfStale();
+            onViewportChanged();
+        }
+
+        @Override
+        public void onChartTranslate(MotionEvent me, float dX, float dY) {
+            resampleIfStale();
+            onViewportChanged();
+        }
+
+        @Override
+        public void onChartGestureEnd(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+            if (lastPerformedGesture == ChartTouchListener.ChartGesture.X_ZOOM
+                    || lastPerformedGesture == ChartTouchListener.ChartGesture.PINCH_ZOOM
+                    || lastPerformedGesture == ChartTouchListener.ChartGesture.DOUBLE_TAP) {
+                resample();
+            }
+            onViewportChanged();
+        }
+
+        @Override
+        public void onChartGestureStart(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+        }
+
+        @Override
+        public void onChartLongPressed(MotionEvent me) {
+        }
+
+        @Override
+        public void onChartDoubleTapped(MotionEvent me) {
+        }
+
+        @Override
+        public void onChartSingleTapped(MotionEvent me) {
+        }
+
+        @Override
+        public void onChartFling(MotionEvent me1, MotionEvent me2, float velocityX, float velocityY) {
+        }
+    }
+
     // Custom formatter for date
     private class DateAxisValueFormatter extends ValueFormatter {
         private SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd", Locale.getDefault());
@@ -7,14 +7,11 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.tracing.Trace;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
-
-import java.util.HashMap;
-import java.util.Map;
 
 import android.os.Bundle;
 
@@ -29,32 +26,42 @@ public class WelcomeActivity extends AppCompatActivity {
     private MaterialButton btnLogin, btnRegister;
     private TextView tvContinueAsGuest;
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
+    private ProfileStore profileStore;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-
-        // Check if user is already logged in
-        mAuth = FirebaseAuth.getInstance();
-        FirebaseUser currentUser = mAuth.getCurrentUser();
-
-        if (currentUser != null && !currentUser.isAnonymous()) {
-            // User is already logged in, go to main activity
-            navigateToMainActivity();
-            return;
+        Trace.beginSection("WelcomeActivity.onCreate");
+        try {
+            // Check if user is already logged in
+            mAuth = FirebaseAuth.getInstance();
+            FirebaseUser currentUser = mAuth.getCurrentUser();
+
+            if (currentUser != null && !currentUser.isAnonymous()) {
+                // User is already logged in, go to main activity before any layout is
+                // inflated; their personal info is read while MainActivity is created
+                FirebaseHelper.prefetchPersonalInfo();
+                navigateToMainActivity();
+                return;
+            }
+
+            setContentView(R.layout.activity_welcome);
+            StartupTrace.endOnFirstFrame(this);
+
+            initializeFirebase();
+            initializeViews();
+            setupListeners();
+
+            // sign-in and sign-up are one tap away from here
+            FacebookInitializer.warmUpWhenIdle(this);
+        } finally {
+            Trace.endSection();
         }
-
-        setContentView(R.layout.activity_welcome);
-
-        initializeFirebase();
-        initializeViews();
-        setupListeners();
     }
 
     private void initializeFirebase() {
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        profileStore = new ProfileStore();
     }
 
     private void initializeViews() {
@@ -96,7 +103,7 @@ public class WelcomeActivity extends AppCompatActivity {
                     if (task.isSuccessful()) {
                         FirebaseUser user = mAuth.getCurrentUser();
                         if (user != null) {
-                            saveGuestUserToFirestore(user);
+                            saveGuestProfile(user);
                         }
                     } else {
                         btnLogin.setEnabled(true);
@@ -109,24 +116,11 @@ public class WelcomeActivity extends AppCompatActivity {
                 });
     }
 
-    private void saveGuestUserToFirestore(FirebaseUser user) {
-        Map<String, Object> userData = new HashMap<>();
-        userData.put("username", "Guest");
-        userData.put("email", "");
-        userData.put("authProvider", "anonymous");
-        userData.put("isGuest", true);
-        userData.put("createdAt", System.currentTimeMillis());
-
-        db.collection("users").document(user.getUid())
-                .set(userData)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(WelcomeActivity.this, "Welcome, Guest!", Toast.LENGTH_SHORT).show();
-                    navigateToMainActivity();
-                })
-                .addOnFailureListener(e -> {
-                    // Still navigate even if Firestore save fails
-                    navigateToMainActivity();
-                });
+    private void saveGuestProfile(FirebaseUser user) {
+        // queued locally and synced in the background, no need to wait for it
+        profileStore.recordLogin(user, "Guest", "anonymous");
+        Toast.makeText(WelcomeActivity.this, "Welcome, Guest!", Toast.LENGTH_SHORT).show();
+        navigateToMainActivity();
     }
 
     private void navigateToMainActivity() {
@@ -0,0 +1,87 @@
+package com.example.bmifrontend;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DatabaseReference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Collects field updates under one user node and sends them as a single
+// updateChildren once no new update has arrived for WINDOW_MS, or earlier on
+// an explicit flush. A later value for the same path replaces the earlier one.
+class WriteCoalescer {
+    private static final String TAG = "WriteCoalescer";
+    private static final long WINDOW_MS = 750;
+
+    private final DatabaseReference userRef;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    private final Map<String, Object> pending = new HashMap<>();
+
+    // metrics: writes callers asked for vs. writes actually sent
+    private int requestedWrites = 0;
+    private int sentWrites = 0;
+
+    WriteCoalescer(DatabaseReference userRef) {
+        this.userRef = userRef;
+    }
+
+    DatabaseReference getUserRef() {
+        return userRef;
+    }
+
+    // Queue one logical write made of several fields
+    void queue(Map<String, Object> updates) {
+        pending.putAll(updates);
+        requestedWrites++;
+
+        handler.removeCallbacks(flushRunnable);
+        handler.postDelayed(flushRunnable, WINDOW_MS);
+    }
+
+    // Hand the pending fields to a caller that is about to write anyway,
+    // so they ride along in its updateChildren instead of a separate one
+    void drainInto(Map<String, Object> updates) {
+        handler.removeCallbacks(flushRunnable);
+        if (pending.isEmpty()) return;
+
+        // the caller's own values are newer, keep them
+        for (Map.Entry<String, Object> entry : pending.entrySet()) {
+            if (!updates.containsKey(entry.getKey())) {
+                updates.put(entry.getKey(), entry.getValue());
+            }
+        }
+        pending.clear();
+        logSaved();
+    }
+
+    // Returns the write that was sent, or null when nothing was pending
+    @Nullable
+    Task<Void> flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (pending.isEmpty()) return null;
+
+        Map<String, Object> updates = new HashMap<>(pending);
+        pending.clear();
+        sentWrites++;
+        logSaved();
+
+        return userRef.updateChildren(updates)
+                .addOnFailureListener(e -> Log.e(TAG, "Error flushing coalesced writes", e));
+    }
+
+    int getSavedWriteCount() {
+        return requestedWrites - sentWrites;
+    }
+
+    private void logSaved() {
+        Log.d(TAG, "Requested " + requestedWrites + " writes, sent " + sentWrites
+                + ", saved " + getSavedWriteCount());
+    }
+}
@@ -0,0 +1,143 @@
+// Plain Java module holding the model and the computation engines, so they can be
+// benchmarked on any JVM (./gradlew :core:jmh) without an Android device.
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Pre-interpolates the CDC BMI-for-age LMS reference (bmiagerev.csv with Sex, Agemos,
+// L, M and S columns) onto a whole-month grid and emits it as primitive arrays in
+// Model.BmiForAgeTables. The build fails if the CSV is missing or doesn't cover 2 to 20
+// years, so the app can't ship with BMI-for-age silently disabled.
+abstract class GenerateBmiForAgeTables : DefaultTask() {
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.NONE)
+    abstract val referenceCsv: ConfigurableFileCollection
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val firstMonth = 24
+        val lastMonth = 240
+        // Agemos -> (L, M, S), one map per CDC sex code (1 = male, 2 = female)
+        val rows = List(2) { java.util.TreeMap<Double, DoubleArray>() }
+        val csv = referenceCsv.files.firstOrNull { it.isFile }
+        if (csv != null) {
+            var columns = emptyList<String>()
+            csv.forEachLine { line ->
+                val cells = line.split(',').map { it.trim().trim('"') }
+                val sex = cells[0].toIntOrNull()
+                if (sex == null) {
+                    // header lines (the CDC file repeats its header between sexes)
+                    if (cells.contains("Agemos")) columns = cells
+                    return@forEachLine
+                }
+                if (sex !in 1..2) return@forEachLine
+                fun value(name: String) = cells[columns.indexOf(name)].toDouble()
+                rows[sex - 1][value("Agemos")] = doubleArrayOf(value("L"), value("M"), value("S"))
+            }
+        }
+        val available = rows.all {
+            it.isNotEmpty() && it.firstKey() <= firstMonth && it.lastKey() >= lastMonth
+        }
+        if (!available) {
+            throw GradleException(
+                "No usable CDC BMI-for-age reference in ${referenceCsv.files}; " +
+                    "run ./gradlew :core:downloadBmiForAgeReference and commit the file"
+            )
+        }
+        val tables = List(3) { StringBuilder() }
+        for (sexRows in rows) {
+            for (month in firstMonth..lastMonth) {
+                val lower = sexRows.floorEntry(month.toDouble())
+                val upper = sexRows.ceilingEntry(month.toDouble())
+                val t = if (upper.key == lower.key) 0.0 else (month - lower.key) / (upper.key - lower.key)
+                for ((i, table) in tables.withIndex()) {
+                    val v = lower.value[i] + (upper.value[i] - lower.value[i]) * t
+                    if ((month - firstMonth) % 8 == 0) table.append("\n            ")
+                    table.append(v.toFloat()).append("f, ")
+                }
+            }
+        }
+        val file = outputDir.get().file("Model/BmiForAgeTables.java").asFile
+        file.parentFile.mkdirs()
+        file.writeText(
+            """
+            |// Generated by generateBmiForAgeTables from the CDC BMI-for-age LMS reference. Do not edit.
+            |package Model;
+            |
+            |final class BmiForAgeTables {
+            |    static final int FIRST_MONTH = $firstMonth;
+            |    static final int MONTHS = ${lastMonth - firstMonth + 1};
+            |    // [sex * MONTHS + (month - FIRST_MONTH)], sex 0 = male, 1 = female
+            |    static final float[] L = {${tables[0]}
+            |    };
+            |    static final float[] M = {${tables[1]}
+            |    };
+            |    static final float[] S = {${tables[2]}
+            |    };
+            |
+            |    private BmiForAgeTables() {
+            |    }
+            |}
+            |""".trimMargin()
+        )
+    }
+}
+
+// Public-domain CDC file, committed under src/main/lms
+val bmiForAgeReferenceUrl = "https://www.cdc.gov/growthcharts/data/zscore/bmiagerev.csv"
+val bmiForAgeReference = layout.projectDirectory.file("src/main/lms/bmiagerev.csv")
+
+// One-off: fetch the reference into the source tree, then commit it
+tasks.register("downloadBmiForAgeReference") {
+    val url = bmiForAgeReferenceUrl
+    val target = bmiForAgeReference.asFile
+    outputs.file(target)
+    doLast {
+        target.parentFile.mkdirs()
+        java.net.URI(url).toURL().openStream().use { input ->
+            target.outputStream().use { input.copyTo(it) }
+        }
+    }
+}
+
+val generateBmiForAgeTables = tasks.register<GenerateBmiForAgeTables>("generateBmiForAgeTables") {
+    referenceCsv.from(bmiForAgeReference)
+    outputDir.set(layout.buildDirectory.dir("generated/sources/bmiForAge"))
+}
+
+sourceSets {
+    main {
+        java.srcDir(generateBmiForAgeTables.flatMap { it.outputDir })
+    }
+}
+
+dependencies {
+    api(libs.annotation)
+    testImplementation(libs.junit)
+    // ProjectionBenchmark parses Realtime Database-shaped JSON
+    jmh(libs.gson)
+}
+
+tasks.test {
+    // BmiForAgeTest checks the generated tables against the published percentiles in the CSV
+    systemProperty("bmiForAge.referenceCsv", bmiForAgeReference.asFile.path)
+    inputs.file(bmiForAgeReference).withPathSensitivity(PathSensitivity.NONE)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmhCore)
+    // the gc profiler reports allocation per operation next to throughput
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
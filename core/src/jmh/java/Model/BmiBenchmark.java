@@ -0,0 +1,60 @@
+package Model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// BMI calculation and classification over a column of readings
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BmiBenchmark {
+    private static final int SIZE = 4096;
+
+    private final float[] weights = new float[SIZE];
+    private final float[] heights = new float[SIZE];
+    private final float[] bmis = new float[SIZE];
+    private final byte[] codes = new byte[SIZE];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            weights[i] = 40 + random.nextFloat() * 80;
+            heights[i] = 150 + random.nextFloat() * 50;
+            bmis[i] = BmiMath.bmiFromCm(weights[i], heights[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void calculate(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(BmiMath.bmiFromCm(weights[i], heights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void classifyEach(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(BmiClassifier.ADULT.classify(bmis[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public byte[] classifyBatch() {
+        BmiClassifier.ADULT.classify(bmis, codes);
+        return codes;
+    }
+}
@@ -0,0 +1,52 @@
+package Model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// BMI-for-age percentile lookups, one at a time and over a whole history
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BmiForAgeBenchmark {
+    private static final int SIZE = 4096;
+
+    private final float[] ageMonths = new float[SIZE];
+    private final float[] bmis = new float[SIZE];
+    private final float[] percentiles = new float[SIZE];
+    private final BmiForAge reference = BmiForAge.CDC;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            ageMonths[i] = BmiForAge.ageMonths(BmiForAge.MIN_AGE_YEARS
+                    + random.nextInt(BmiForAge.MAX_AGE_YEARS - BmiForAge.MIN_AGE_YEARS + 1));
+            bmis[i] = 13 + random.nextFloat() * 20;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void percentileEach(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(reference.percentile(BmiForAge.SEX_FEMALE, ageMonths[i], bmis[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public float[] percentileBatch() {
+        reference.percentiles(BmiForAge.SEX_FEMALE, ageMonths, bmis, percentiles);
+        return percentiles;
+    }
+}
@@ -0,0 +1,85 @@
+package Model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+// Day bucketing of a newest-first history, as HistoryActivity pages it in
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DayBucketerBenchmark {
+    private static final int SIZE = 4096;
+
+    private final long[] newestFirst = new long[SIZE];
+    private final int[] latestIndexes = new int[SIZE];
+    private DayBucketer bucketer;
+    private SimpleDateFormat dayFormat;
+
+    @Setup
+    public void setUp() {
+        // a zone with DST so cached offsets are invalidated along the way
+        TimeZone zone = TimeZone.getTimeZone("America/Toronto");
+        bucketer = new DayBucketer(zone);
+        dayFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        dayFormat.setTimeZone(zone);
+        Random random = new Random(42);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < SIZE; i++) {
+            newestFirst[i] = timestamp;
+            timestamp -= 1 + (long) (random.nextFloat() * WeightTrend.DAY_MILLIS);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void epochDay(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(bucketer.epochDay(newestFirst[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int latestPerDay() {
+        return bucketer.latestPerDay(newestFirst, SIZE, Integer.MAX_VALUE, latestIndexes);
+    }
+
+    // Baseline: the "yyyy-MM-dd" key per reading that HistoryActivity used before DayBucketer
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void formatDayKey(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(dayFormat.format(new Date(newestFirst[i])));
+        }
+    }
+
+    // Baseline for latestPerDay: keep the first reading of each formatted day key
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int latestPerDayFormatted() {
+        int count = 0;
+        String lastDay = null;
+        for (int i = 0; i < SIZE; i++) {
+            String day = dayFormat.format(new Date(newestFirst[i]));
+            if (!day.equals(lastDay)) {
+                latestIndexes[count++] = i;
+                lastDay = day;
+            }
+        }
+        return count;
+    }
+}
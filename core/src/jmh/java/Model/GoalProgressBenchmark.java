@@ -0,0 +1,44 @@
+package Model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Goal progress update done for every saved calculation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GoalProgressBenchmark {
+    private static final int SIZE = 4096;
+
+    private final float[] startBmis = new float[SIZE];
+    private final float[] currentBmis = new float[SIZE];
+    private final float[] targetBmis = new float[SIZE];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            startBmis[i] = 22 + random.nextFloat() * 10;
+            currentBmis[i] = 20 + random.nextFloat() * 12;
+            targetBmis[i] = 20 + random.nextFloat() * 5;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void goalProgress(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(BmiMath.goalProgress(startBmis[i], currentBmis[i], targetBmis[i]));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package Model;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Payload size and parse time of what MainActivity and the Statistics screen read: the
+// whole users/{uid} tree (the old getUserData) against the personalInfo, currentGoal and
+// getMeasurementsSince projections. The JSON matches the Realtime Database layout, and
+// Gson's reflective mapping stands in for the SDK's getValue(Class).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionBenchmark {
+    private static final Type MEASUREMENTS = new TypeToken<Map<String, User.Measurement>>() {}.getType();
+    // the "since" read covers the last 30 days
+    private static final int RECENT_DAYS = 30;
+
+    @Param({"10000"})
+    public int size;
+
+    private final Gson gson = new Gson();
+    private String fullUser;
+    private String personalInfo;
+    private String currentGoal;
+    private String recentMeasurements;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long now = 1_700_000_000_000L;
+        long since = now - RECENT_DAYS * WeightTrend.DAY_MILLIS;
+        long timestamp = now - size * (WeightTrend.DAY_MILLIS / 4);
+
+        personalInfo = "{\"age\":34,\"gender\":\"female\",\"height\":168.0,\"currentWeight\":71.5,"
+                + "\"goalWeight\":65.0,\"goalBmi\":23.0}";
+        currentGoal = "{\"targetWeight\":65.0,\"targetBmi\":23.0,\"startWeight\":78.0,"
+                + "\"startDate\":1690000000000,\"targetDate\":1710000000000,"
+                + "\"status\":\"active\",\"progress\":42.5}";
+
+        StringBuilder all = new StringBuilder("{");
+        StringBuilder recent = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            timestamp += 1 + random.nextInt((int) (WeightTrend.DAY_MILLIS / 2));
+            float weight = 60 + random.nextFloat() * 30;
+            float bmi = BmiMath.bmiFromCm(weight, 168);
+            String entry = "\"-N" + Long.toString(timestamp, 36) + "x" + i + "\":{\"timestamp\":" + timestamp
+                    + ",\"weight\":" + weight + ",\"height\":168.0,\"bmi\":" + bmi
+                    + ",\"category\":\"" + BmiClassifier.ADULT.classify(bmi).getLabel() + "\",\"note\":\"\"}";
+            all.append(i == 0 ? "" : ",").append(entry);
+            if (timestamp >= since) {
+                recent.append(recent.length() == 1 ? "" : ",").append(entry);
+            }
+        }
+        recentMeasurements = recent.append('}').toString();
+
+        StringBuilder completed = new StringBuilder("{");
+        for (int i = 0; i < 20; i++) {
+            completed.append(i == 0 ? "" : ",").append("\"g").append(i).append("\":")
+                    .append(currentGoal.replace("active", "completed"));
+        }
+        completed.append('}');
+        all.append('}');
+        fullUser = "{\"personalInfo\":" + personalInfo
+                + ",\"goals\":{\"currentGoal\":" + currentGoal + ",\"completedGoals\":" + completed + "}"
+                + ",\"measurements\":" + all + "}";
+
+        // JMH shows this in the run log next to the timings
+        System.out.printf("payload bytes: fullUser=%d personalInfoAndGoal=%d measurementsSince=%d%n",
+                bytes(fullUser), bytes(personalInfo) + bytes(currentGoal), bytes(recentMeasurements));
+    }
+
+    private static int bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // Old startup read: the whole tree, just to show personalInfo and the goal
+    @Benchmark
+    public User fullUser() {
+        return gson.fromJson(fullUser, User.class);
+    }
+
+    // New startup read: the two small subtrees
+    @Benchmark
+    public User.Goal personalInfoAndGoal() {
+        User.PersonalInfo info = gson.fromJson(personalInfo, User.PersonalInfo.class);
+        User.Goal goal = gson.fromJson(currentGoal, User.Goal.class);
+        return info.getHeight() > 0 ? goal : null;
+    }
+
+    // Incremental read of the readings taken since a timestamp
+    @Benchmark
+    public Map<String, User.Measurement> measurementsSince() {
+        return gson.fromJson(recentMeasurements, MEASUREMENTS);
+    }
+}
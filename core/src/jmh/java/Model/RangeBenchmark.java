@@ -0,0 +1,82 @@
+package Model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Time-range filtering and summary statistics behind the Statistics screen
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final MeasurementSeries.Range range = new MeasurementSeries.Range();
+    private final RangeStats.Summary summary = new RangeStats.Summary();
+    private final long[] starts = new long[QUERIES];
+    private final long[] ends = new long[QUERIES];
+    private final int[] sampled = new int[500];
+    private MeasurementSeries series;
+    private RangeStats stats;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<User.Measurement> measurements = new ArrayList<>(size);
+        long timestamp = 1_600_000_000_000L;
+        for (int i = 0; i < size; i++) {
+            timestamp += 1 + (long) (random.nextFloat() * WeightTrend.DAY_MILLIS);
+            float weight = 60 + random.nextFloat() * 20;
+            User.Measurement m = new User.Measurement(weight, 175, BmiMath.bmiFromCm(weight, 175), "Normal");
+            m.setKey("k" + i);
+            m.setTimestamp(timestamp);
+            measurements.add(m);
+        }
+        series = MeasurementSeries.fromMeasurements(measurements);
+        stats = RangeStats.build(series, MeasurementSeries.Column.WEIGHT);
+
+        long first = series.timestampAt(0);
+        long span = series.timestampAt(series.size() - 1) - first;
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = first + (long) (random.nextFloat() * span);
+            ends[i] = starts[i] + WeightTrend.MONTH_MILLIS;
+        }
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public MeasurementSeries.Range filter() {
+        int q = nextQuery();
+        return series.range(starts[q], ends[q], range);
+    }
+
+    @Benchmark
+    public RangeStats.Summary summarize() {
+        int q = nextQuery();
+        return stats.query(starts[q], ends[q], summary);
+    }
+
+    @Benchmark
+    public int downsampleAll() {
+        range.set(0, series.size());
+        return series.downsample(MeasurementSeries.Column.WEIGHT, range, sampled.length, sampled);
+    }
+}
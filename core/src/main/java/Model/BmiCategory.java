@@ -0,0 +1,50 @@
+package Model;
+
+// Adult BMI categories. code() is a compact byte form for columnar storage.
+public enum BmiCategory {
+    UNDERWEIGHT("Underweight"),
+    NORMAL("Normal"),
+    OVERWEIGHT("Overweight"),
+    OBESE("Obese");
+
+    // code for a missing or unrecognised category label
+    public static final byte UNKNOWN_CODE = -1;
+
+    private static final BmiCategory[] VALUES = values();
+
+    private final String label;
+
+    BmiCategory(String label) {
+        this.label = label;
+    }
+
+    // Label as stored in the database and shown in the UI
+    public String getLabel() {
+        return label;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    // Null for UNKNOWN_CODE
+    public static BmiCategory fromCode(byte code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+    }
+
+    // Case-insensitive; null if the label is missing or not a known category
+    public static BmiCategory fromLabel(String label) {
+        if (label == null) return null;
+        for (BmiCategory category : VALUES) {
+            if (category.label.equalsIgnoreCase(label)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    public static byte codeOf(String label) {
+        BmiCategory category = fromLabel(label);
+        return category != null ? category.code() : UNKNOWN_CODE;
+    }
+}
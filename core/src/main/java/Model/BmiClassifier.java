@@ -0,0 +1,64 @@
+package Model;
+
+import java.util.Arrays;
+
+// Table-driven BMI classification. upperBounds[i] is the exclusive upper BMI of
+// category i (in BmiCategory order); the last category is open-ended. Changing the
+// policy means building a classifier with another table, not editing if/else chains.
+public final class BmiClassifier {
+    private static final BmiCategory[] CATEGORIES = BmiCategory.values();
+
+    // WHO adult cut-offs as used throughout the app
+    public static final BmiClassifier ADULT = new BmiClassifier(new float[]{18.5f, 24.9f, 29.9f});
+
+    private final float[] upperBounds;
+
+    public BmiClassifier(float[] upperBounds) {
+        if (upperBounds.length != CATEGORIES.length - 1) {
+            throw new IllegalArgumentException("Expected " + (CATEGORIES.length - 1) + " thresholds, got "
+                    + upperBounds.length);
+        }
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (!(upperBounds[i] > upperBounds[i - 1])) {
+                throw new IllegalArgumentException("Thresholds must be strictly ascending: "
+                        + Arrays.toString(upperBounds));
+            }
+        }
+        this.upperBounds = upperBounds.clone();
+    }
+
+    public float[] getUpperBounds() {
+        return upperBounds.clone();
+    }
+
+    public BmiCategory classify(float bmi) {
+        return CATEGORIES[classifyCode(bmi)];
+    }
+
+    // BmiCategory code for bmi; NaN counts as the lowest category
+    public byte classifyCode(float bmi) {
+        int code = 0;
+        for (float bound : upperBounds) {
+            if (bmi >= bound) code++;
+        }
+        return (byte) code;
+    }
+
+    // Classify a whole column of BMIs into category codes
+    public void classify(float[] bmi, byte[] out) {
+        classify(bmi, 0, bmi.length, out);
+    }
+
+    // Classify bmi[offset, offset + length) into out[offset, offset + length)
+    public void classify(float[] bmi, int offset, int length, byte[] out) {
+        float t0 = upperBounds[0];
+        float t1 = upperBounds[1];
+        float t2 = upperBounds[2];
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            float value = bmi[i];
+            // summing comparisons instead of branching keeps the loop branch-free
+            out[i] = (byte) ((value >= t0 ? 1 : 0) + (value >= t1 ? 1 : 0) + (value >= t2 ? 1 : 0));
+        }
+    }
+}
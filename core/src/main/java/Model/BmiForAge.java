@@ -0,0 +1,117 @@
+package Model;
+
+import androidx.annotation.Nullable;
+
+// BMI-for-age percentiles for children and teens (2 to 19 years) from the CDC LMS
+// reference. The L, M and S curves are interpolated onto a whole-month grid at build
+// time (see generateBmiForAgeTables in core/build.gradle.kts), so a lookup is three
+// array reads plus the LMS transform:
+//   z = ((bmi / M)^L - 1) / (L * S),  or ln(bmi / M) / S when L == 0
+public final class BmiForAge {
+    public static final int SEX_MALE = 0;
+    public static final int SEX_FEMALE = 1;
+    public static final int MIN_AGE_YEARS = 2;
+    public static final int MAX_AGE_YEARS = 19;
+
+    // CDC cut-offs: <5th underweight, <85th healthy, <95th overweight, else obese
+    private static final float UNDERWEIGHT_PERCENTILE = 5f;
+    private static final float OVERWEIGHT_PERCENTILE = 85f;
+    private static final float OBESE_PERCENTILE = 95f;
+
+    public static final BmiForAge CDC = new BmiForAge(BmiForAgeTables.FIRST_MONTH, BmiForAgeTables.MONTHS,
+            BmiForAgeTables.L, BmiForAgeTables.M, BmiForAgeTables.S);
+
+    private final int firstMonth;
+    private final int months;
+    // indexed by sex * months + (month - firstMonth)
+    private final float[] l;
+    private final float[] m;
+    private final float[] s;
+
+    BmiForAge(int firstMonth, int months, float[] l, float[] m, float[] s) {
+        if (l.length != 2 * months || m.length != 2 * months || s.length != 2 * months) {
+            throw new IllegalArgumentException("LMS tables must hold " + months + " months per sex");
+        }
+        this.firstMonth = firstMonth;
+        this.months = months;
+        this.l = l;
+        this.m = m;
+        this.s = s;
+    }
+
+    // SEX_MALE / SEX_FEMALE for the gender stored in PersonalInfo, -1 otherwise
+    public static int sexOf(@Nullable String gender) {
+        if ("male".equalsIgnoreCase(gender)) return SEX_MALE;
+        if ("female".equalsIgnoreCase(gender)) return SEX_FEMALE;
+        return -1;
+    }
+
+    // Only whole years are known, so place the child in the middle of that year
+    public static float ageMonths(int ageYears) {
+        return ageYears * 12 + 6;
+    }
+
+    public boolean covers(int sex, float ageMonths) {
+        return index(sex, ageMonths) >= 0;
+    }
+
+    // z-score of bmi for the given sex and age in months; NaN outside the reference
+    public float zScore(int sex, float ageMonths, float bmi) {
+        int index = index(sex, ageMonths);
+        return index < 0 ? Float.NaN : zScore(index, bmi);
+    }
+
+    // Percentile (0..100) of bmi for the given sex and age in months; NaN outside the reference
+    public float percentile(int sex, float ageMonths, float bmi) {
+        int index = index(sex, ageMonths);
+        return index < 0 ? Float.NaN : toPercentile(zScore(index, bmi));
+    }
+
+    // Percentiles for a whole history at once, e.g. after the reference or age changes
+    public void percentiles(int sex, float[] ageMonths, float[] bmi, float[] out) {
+        percentiles(sex, ageMonths, bmi, 0, bmi.length, out);
+    }
+
+    // Percentiles for [offset, offset + length); entries outside the reference become NaN
+    public void percentiles(int sex, float[] ageMonths, float[] bmi, int offset, int length, float[] out) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int index = index(sex, ageMonths[i]);
+            out[i] = index < 0 ? Float.NaN : toPercentile(zScore(index, bmi[i]));
+        }
+    }
+
+    public static BmiCategory categoryOf(float percentile) {
+        if (percentile < UNDERWEIGHT_PERCENTILE) return BmiCategory.UNDERWEIGHT;
+        if (percentile < OVERWEIGHT_PERCENTILE) return BmiCategory.NORMAL;
+        if (percentile < OBESE_PERCENTILE) return BmiCategory.OVERWEIGHT;
+        return BmiCategory.OBESE;
+    }
+
+    private int index(int sex, float ageMonths) {
+        if (sex != SEX_MALE && sex != SEX_FEMALE) return -1;
+        int month = Math.round(ageMonths) - firstMonth;
+        if (month < 0 || month >= months) return -1;
+        return sex * months + month;
+    }
+
+    private float zScore(int index, float bmi) {
+        double lambda = l[index];
+        double ratio = bmi / m[index];
+        if (Math.abs(lambda) < 1e-6) {
+            return (float) (Math.log(ratio) / s[index]);
+        }
+        return (float) ((Math.pow(ratio, lambda) - 1) / (lambda * s[index]));
+    }
+
+    // Standard normal CDF via the Abramowitz-Stegun 7.1.26 erf approximation (|error| < 1.5e-7)
+    static float toPercentile(float z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double poly = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429))));
+        double erf = 1 - poly * Math.exp(-x * x);
+        double cdf = z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+        return (float) (cdf * 100);
+    }
+}
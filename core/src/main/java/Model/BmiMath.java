@@ -0,0 +1,26 @@
+package Model;
+
+// BMI and goal arithmetic shared by the calculator, history edits and goal tracking.
+public final class BmiMath {
+    private BmiMath() {
+    }
+
+    public static float bmi(float weightKg, float heightMeters) {
+        return weightKg / (heightMeters * heightMeters);
+    }
+
+    public static float bmiFromCm(float weightKg, float heightCm) {
+        return bmi(weightKg, heightCm / 100);
+    }
+
+    // Percent (0..100) of the way from startBmi to targetBmi; moving away from the
+    // target counts as 0. A goal that equals the starting BMI counts as reached.
+    public static float goalProgress(float startBmi, float currentBmi, float targetBmi) {
+        float totalDistance = targetBmi - startBmi;
+        if (totalDistance == 0) {
+            return 100;
+        }
+        float progress = (currentBmi - startBmi) / totalDistance * 100;
+        return Math.min(100, Math.max(0, progress));
+    }
+}
@@ -0,0 +1,95 @@
+package Model;
+
+import java.util.TimeZone;
+
+// Maps timestamps to local calendar days as primitive epoch-day ints
+// (days since 1970-01-01 in the bucketer's time zone).
+// The zone offset is looked up once and reused for as long as it is known not to
+// change, so bucketing a sorted history costs a range check and a division per
+// timestamp instead of a formatted date String.
+// Not thread-safe: the offset cache is mutable.
+public class DayBucketer {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    // offsets are assumed to change at most once inside one cached span
+    private static final long CACHE_SPAN_MS = 7 * DAY_MS;
+
+    private final TimeZone timeZone;
+
+    // [cachedStart, cachedEnd) is a UTC range over which cachedOffset applies
+    private long cachedStart = 1;
+    private long cachedEnd = 0;
+    private int cachedOffset;
+
+    public DayBucketer(TimeZone timeZone) {
+        this.timeZone = (TimeZone) timeZone.clone();
+    }
+
+    public static DayBucketer forDefaultZone() {
+        return new DayBucketer(TimeZone.getDefault());
+    }
+
+    public int epochDay(long timestamp) {
+        if (timestamp < cachedStart || timestamp >= cachedEnd) {
+            cacheOffsetAround(timestamp);
+        }
+        return (int) Math.floorDiv(timestamp + cachedOffset, DAY_MS);
+    }
+
+    // Latest-per-day reduction in one pass over timestamps sorted newest first.
+    // Writes the index of the first (latest) timestamp of each new day into out
+    // and returns how many were written. previousDay is the day of the last item
+    // already emitted by an earlier call, or Integer.MAX_VALUE if none, so that
+    // pages of one sorted history can be reduced one after another.
+    public int latestPerDay(long[] newestFirst, int length, int previousDay, int[] out) {
+        int count = 0;
+        int lastDay = previousDay;
+        for (int i = 0; i < length; i++) {
+            int day = epochDay(newestFirst[i]);
+            if (day < lastDay) {
+                out[count++] = i;
+                lastDay = day;
+            }
+        }
+        return count;
+    }
+
+    private void cacheOffsetAround(long timestamp) {
+        int offset = timeZone.getOffset(timestamp);
+
+        // start from the local span containing the timestamp, then trim it at
+        // the zone transition on either side, if there is one
+        long start = Math.floorDiv(timestamp + offset, CACHE_SPAN_MS) * CACHE_SPAN_MS - offset;
+        long end = start + CACHE_SPAN_MS;
+
+        if (start > timestamp) {
+            start = timestamp;
+        } else if (timeZone.getOffset(start) != offset) {
+            start = findTransition(start, timestamp);
+        }
+
+        if (end <= timestamp) {
+            end = timestamp + 1;
+        } else if (timeZone.getOffset(end - 1) != offset) {
+            end = findTransition(timestamp, end - 1);
+        }
+
+        cachedStart = start;
+        cachedEnd = end;
+        cachedOffset = offset;
+    }
+
+    // First instant in (from, to] whose offset differs from the offset at from,
+    // assuming exactly one transition in between
+    private long findTransition(long from, long to) {
+        int fromOffset = timeZone.getOffset(from);
+        while (to - from > 1) {
+            long mid = from + (to - from) / 2;
+            if (timeZone.getOffset(mid) == fromOffset) {
+                from = mid;
+            } else {
+                to = mid;
+            }
+        }
+        return to;
+    }
+}
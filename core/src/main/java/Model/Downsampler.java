@@ -0,0 +1,77 @@
+package Model;
+
+// Largest-Triangle-Three-Buckets downsampling. Picks the indices of at most
+// threshold points that keep the visual shape of a line: the first and last
+// points are always kept, and each bucket in between keeps the point forming
+// the largest triangle with the previous pick and the average of the next bucket.
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    // Writes the picked indices (ascending, into the source arrays) to out and
+    // returns how many were written. out must hold min(threshold, to - from).
+    public static int lttb(long[] x, float[] y, int from, int to, int threshold, int[] out) {
+        int length = to - from;
+        if (length <= 0) return 0;
+
+        if (threshold >= length) {
+            for (int i = 0; i < length; i++) {
+                out[i] = from + i;
+            }
+            return length;
+        }
+        if (threshold < 3) {
+            // too few points for buckets: keep the ends
+            out[0] = from;
+            if (threshold < 2) return 1;
+            out[1] = to - 1;
+            return 2;
+        }
+
+        // x relative to the first point so doubles keep millisecond precision
+        long base = x[from];
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+
+        int count = 0;
+        int picked = from;
+        out[count++] = picked;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // average of the next bucket (the last point for the final bucket)
+            int avgStart = from + (int) ((bucket + 1) * bucketSize) + 1;
+            int avgEnd = Math.min(from + (int) ((bucket + 2) * bucketSize) + 1, to);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = avgStart; i < avgEnd; i++) {
+                avgX += x[i] - base;
+                avgY += y[i];
+            }
+            int avgCount = avgEnd - avgStart;
+            avgX /= avgCount;
+            avgY /= avgCount;
+
+            // point in this bucket with the largest triangle
+            int rangeStart = from + (int) (bucket * bucketSize) + 1;
+            int rangeEnd = from + (int) ((bucket + 1) * bucketSize) + 1;
+            double pickedX = x[picked] - base;
+            double pickedY = y[picked];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((pickedX - avgX) * (y[i] - pickedY)
+                        - (pickedX - (x[i] - base)) * (avgY - pickedY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = i;
+                }
+            }
+
+            out[count++] = next;
+            picked = next;
+        }
+
+        out[count++] = to - 1;
+        return count;
+    }
+}
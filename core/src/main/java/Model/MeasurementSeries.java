@@ -0,0 +1,352 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Measurements stored column by column in primitive arrays, sorted by timestamp
+// (oldest first). Built once from the database and then patched in place, so
+// charts, range filters and summary stats can all read the same arrays without
+// holding one boxed Measurement object per reading.
+// Weight trend columns (EMA and 7/30-day moving averages) are kept alongside;
+// appending a reading updates them in O(1), inserting or removing one earlier
+// only recomputes the readings after it.
+public class MeasurementSeries {
+    // value columns that can be charted
+    public enum Column {
+        WEIGHT,
+        BMI,
+        WEIGHT_EMA,
+        WEIGHT_WEEK_AVERAGE,
+        WEIGHT_MONTH_AVERAGE
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private String[] keys;
+    private long[] timestamps;
+    private float[] weights;
+    private float[] bmis;
+    private byte[] categories;
+    private float[] emas;
+    private float[] weekAverages;
+    private float[] monthAverages;
+    private int size;
+    // moving average windows as of the last reading
+    private final Window weekWindow = new Window(WeightTrend.WEEK_MILLIS);
+    private final Window monthWindow = new Window(WeightTrend.MONTH_MILLIS);
+    // bumped on every insert and remove
+    private int version;
+
+    public MeasurementSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MeasurementSeries(int capacity) {
+        capacity = Math.max(capacity, 1);
+        keys = new String[capacity];
+        timestamps = new long[capacity];
+        weights = new float[capacity];
+        bmis = new float[capacity];
+        categories = new byte[capacity];
+        emas = new float[capacity];
+        weekAverages = new float[capacity];
+        monthAverages = new float[capacity];
+    }
+
+    // Build from measurements in any order; sorts once
+    public static MeasurementSeries fromMeasurements(Collection<User.Measurement> measurements) {
+        List<User.Measurement> sorted = new ArrayList<>(measurements);
+        Collections.sort(sorted, (m1, m2) -> Long.compare(m1.getTimestamp(), m2.getTimestamp()));
+
+        MeasurementSeries series = new MeasurementSeries(sorted.size());
+        for (User.Measurement m : sorted) {
+            int i = series.size++;
+            series.keys[i] = m.getKey();
+            series.timestamps[i] = m.getTimestamp();
+            series.weights[i] = m.getWeight();
+            series.bmis[i] = m.getBmi();
+            series.categories[i] = BmiCategory.codeOf(m.getCategory());
+        }
+        series.recomputeTrend(0);
+        return series;
+    }
+
+    // Independent copy, for handing a snapshot to another thread
+    public MeasurementSeries copy() {
+        MeasurementSeries copy = new MeasurementSeries(size);
+        System.arraycopy(keys, 0, copy.keys, 0, size);
+        System.arraycopy(timestamps, 0, copy.timestamps, 0, size);
+        System.arraycopy(weights, 0, copy.weights, 0, size);
+        System.arraycopy(bmis, 0, copy.bmis, 0, size);
+        System.arraycopy(categories, 0, copy.categories, 0, size);
+        System.arraycopy(emas, 0, copy.emas, 0, size);
+        System.arraycopy(weekAverages, 0, copy.weekAverages, 0, size);
+        System.arraycopy(monthAverages, 0, copy.monthAverages, 0, size);
+        copy.weekWindow.copyFrom(weekWindow);
+        copy.monthWindow.copyFrom(monthWindow);
+        copy.size = size;
+        copy.version = version;
+        return copy;
+    }
+
+    // Changes whenever the contents change; lets callers tell if derived data is stale
+    public int getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String keyAt(int index) {
+        return keys[index];
+    }
+
+    public long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    public float weightAt(int index) {
+        return weights[index];
+    }
+
+    public float bmiAt(int index) {
+        return bmis[index];
+    }
+
+    public byte categoryCodeAt(int index) {
+        return categories[index];
+    }
+
+    public float valueAt(Column column, int index) {
+        return columnValues(column)[index];
+    }
+
+    // LTTB-downsample a column over range to at most threshold points; see Downsampler.lttb
+    public int downsample(Column column, Range range, int threshold, int[] out) {
+        return Downsampler.lttb(timestamps, columnValues(column), range.offset, range.getEnd(), threshold, out);
+    }
+
+    private float[] columnValues(Column column) {
+        switch (column) {
+            case BMI:
+                return bmis;
+            case WEIGHT_EMA:
+                return emas;
+            case WEIGHT_WEEK_AVERAGE:
+                return weekAverages;
+            case WEIGHT_MONTH_AVERAGE:
+                return monthAverages;
+            case WEIGHT:
+            default:
+                return weights;
+        }
+    }
+
+    // Insert keeping timestamp order (after any equal timestamps); returns the index
+    public int insert(User.Measurement m) {
+        int index = upperBound(m.getTimestamp());
+        ensureCapacity(size + 1);
+
+        int tail = size - index;
+        if (tail > 0) {
+            System.arraycopy(keys, index, keys, index + 1, tail);
+            System.arraycopy(timestamps, index, timestamps, index + 1, tail);
+            System.arraycopy(weights, index, weights, index + 1, tail);
+            System.arraycopy(bmis, index, bmis, index + 1, tail);
+            System.arraycopy(categories, index, categories, index + 1, tail);
+            System.arraycopy(emas, index, emas, index + 1, tail);
+            System.arraycopy(weekAverages, index, weekAverages, index + 1, tail);
+            System.arraycopy(monthAverages, index, monthAverages, index + 1, tail);
+        }
+
+        keys[index] = m.getKey();
+        timestamps[index] = m.getTimestamp();
+        weights[index] = m.getWeight();
+        bmis[index] = m.getBmi();
+        categories[index] = BmiCategory.codeOf(m.getCategory());
+        size++;
+        version++;
+
+        if (index == size - 1) {
+            appendTrend(index);
+        } else {
+            recomputeTrend(index);
+        }
+        return index;
+    }
+
+    // Remove the reading with this key and timestamp; returns its former index or -1
+    public int remove(String key, long timestamp) {
+        int index = lowerBound(timestamp);
+        while (index < size && timestamps[index] == timestamp) {
+            if (key != null && key.equals(keys[index])) {
+                int tail = size - index - 1;
+                if (tail > 0) {
+                    System.arraycopy(keys, index + 1, keys, index, tail);
+                    System.arraycopy(timestamps, index + 1, timestamps, index, tail);
+                    System.arraycopy(weights, index + 1, weights, index, tail);
+                    System.arraycopy(bmis, index + 1, bmis, index, tail);
+                    System.arraycopy(categories, index + 1, categories, index, tail);
+                    System.arraycopy(emas, index + 1, emas, index, tail);
+                    System.arraycopy(weekAverages, index + 1, weekAverages, index, tail);
+                    System.arraycopy(monthAverages, index + 1, monthAverages, index, tail);
+                }
+                size--;
+                keys[size] = null;
+                version++;
+                recomputeTrend(index);
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    // Fill out with the readings in [startTime, endTime): O(log n), no allocation
+    public Range range(long startTime, long endTime, Range out) {
+        int from = lowerBound(startTime);
+        int to = Math.max(from, lowerBound(endTime));
+        out.offset = from;
+        out.length = to - from;
+        return out;
+    }
+
+    // First index whose timestamp is >= the given one (size if none)
+    public int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index whose timestamp is > the given one (size if none)
+    public int upperBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= timestamps.length) return;
+
+        int newCapacity = Math.max(capacity, timestamps.length + (timestamps.length >> 1));
+        keys = Arrays.copyOf(keys, newCapacity);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        weights = Arrays.copyOf(weights, newCapacity);
+        bmis = Arrays.copyOf(bmis, newCapacity);
+        categories = Arrays.copyOf(categories, newCapacity);
+        emas = Arrays.copyOf(emas, newCapacity);
+        weekAverages = Arrays.copyOf(weekAverages, newCapacity);
+        monthAverages = Arrays.copyOf(monthAverages, newCapacity);
+    }
+
+    // Trend values for a reading appended at index, from the windows as of index - 1
+    private void appendTrend(int index) {
+        emas[index] = index == 0 ? weights[0]
+                : WeightTrend.nextEma(emas[index - 1], timestamps[index - 1], weights[index], timestamps[index]);
+        weekAverages[index] = weekWindow.advance(index);
+        monthAverages[index] = monthWindow.advance(index);
+    }
+
+    // Recompute trend values for [from, size) after an earlier reading changed
+    private void recomputeTrend(int from) {
+        weekWindow.resetTo(from - 1);
+        monthWindow.resetTo(from - 1);
+        for (int i = from; i < size; i++) {
+            appendTrend(i);
+        }
+    }
+
+    // Readings within span of the current one: indices [head, last], with their weight sum
+    private class Window {
+        private final long span;
+        private int head;
+        private double sum;
+
+        Window(long span) {
+            this.span = span;
+        }
+
+        // Add reading index (the next one after the window's last) and return the average
+        float advance(int index) {
+            sum += weights[index];
+            long cutoff = timestamps[index] - span;
+            while (timestamps[head] <= cutoff) {
+                sum -= weights[head];
+                head++;
+            }
+            return (float) (sum / (index - head + 1));
+        }
+
+        // Rebuild the window ending at last (empty if last < 0)
+        void resetTo(int last) {
+            sum = 0;
+            if (last < 0) {
+                head = 0;
+                return;
+            }
+            head = upperBound(timestamps[last] - span);
+            for (int i = head; i <= last; i++) {
+                sum += weights[i];
+            }
+        }
+
+        void copyFrom(Window other) {
+            head = other.head;
+            sum = other.sum;
+        }
+    }
+
+    // View of a contiguous run of the series; indices are into the series itself.
+    // Reuse one instance across queries; it is invalidated by insert and remove.
+    public static class Range {
+        private int offset;
+        private int length;
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        // Exclusive end index
+        public int getEnd() {
+            return offset + length;
+        }
+
+        public boolean isEmpty() {
+            return length == 0;
+        }
+
+        public Range set(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package Model;
+
+// Range statistics over one column of a MeasurementSeries. Building takes
+// O(n log n) (prefix sums for mean and variance, sparse tables for min and max);
+// after that any time range is answered in O(1) plus two binary searches.
+// Keeps its own copy of the data, so it stays valid while the series changes.
+public final class RangeStats {
+    private static final double MILLIS_PER_WEEK = 7d * 24 * 60 * 60 * 1000;
+
+    private final long[] timestamps;
+    private final float[] values;
+    // sums[i] and squares[i] cover values[0, i)
+    private final double[] sums;
+    private final double[] squares;
+    // minTable[k][i] is the minimum of values[i, i + 2^k)
+    private final float[][] minTable;
+    private final float[][] maxTable;
+
+    private RangeStats(long[] timestamps, float[] values) {
+        int n = values.length;
+        this.timestamps = timestamps;
+        this.values = values;
+
+        sums = new double[n + 1];
+        squares = new double[n + 1];
+        for (int i = 0; i < n; i++) {
+            sums[i + 1] = sums[i] + values[i];
+            squares[i + 1] = squares[i] + (double) values[i] * values[i];
+        }
+
+        int levels = n > 0 ? 32 - Integer.numberOfLeadingZeros(n) : 0;
+        minTable = new float[levels][];
+        maxTable = new float[levels][];
+        if (levels > 0) {
+            minTable[0] = values;
+            maxTable[0] = values;
+        }
+        for (int k = 1; k < levels; k++) {
+            int half = 1 << (k - 1);
+            int width = n - (1 << k) + 1;
+            float[] prevMin = minTable[k - 1];
+            float[] prevMax = maxTable[k - 1];
+            float[] min = new float[width];
+            float[] max = new float[width];
+            for (int i = 0; i < width; i++) {
+                min[i] = Math.min(prevMin[i], prevMin[i + half]);
+                max[i] = Math.max(prevMax[i], prevMax[i + half]);
+            }
+            minTable[k] = min;
+            maxTable[k] = max;
+        }
+    }
+
+    public static RangeStats build(MeasurementSeries series, MeasurementSeries.Column column) {
+        int n = series.size();
+        long[] timestamps = new long[n];
+        float[] values = new float[n];
+        for (int i = 0; i < n; i++) {
+            timestamps[i] = series.timestampAt(i);
+            values[i] = series.valueAt(column, i);
+        }
+        return new RangeStats(timestamps, values);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    // Statistics for readings with startTime <= timestamp <= endTime, written to out
+    public Summary query(long startTime, long endTime, Summary out) {
+        int from = lowerBound(startTime);
+        int to = endTime == Long.MAX_VALUE ? values.length : lowerBound(endTime + 1);
+        return queryIndices(from, Math.max(from, to), out);
+    }
+
+    // Statistics for values[from, to)
+    public Summary queryIndices(int from, int to, Summary out) {
+        int count = to - from;
+        out.count = count;
+        if (count <= 0) {
+            out.average = out.min = out.max = out.standardDeviation = out.netChange = out.weeklyRate = 0;
+            return out;
+        }
+
+        double mean = (sums[to] - sums[from]) / count;
+        double variance = (squares[to] - squares[from]) / count - mean * mean;
+        out.average = (float) mean;
+        out.standardDeviation = (float) Math.sqrt(Math.max(variance, 0));
+
+        int k = 31 - Integer.numberOfLeadingZeros(count);
+        int second = to - (1 << k);
+        out.min = Math.min(minTable[k][from], minTable[k][second]);
+        out.max = Math.max(maxTable[k][from], maxTable[k][second]);
+
+        out.netChange = values[to - 1] - values[from];
+        long span = timestamps[to - 1] - timestamps[from];
+        out.weeklyRate = span > 0 ? (float) (out.netChange / (span / MILLIS_PER_WEEK)) : 0;
+        return out;
+    }
+
+    private int lowerBound(long timestamp) {
+        int low = 0;
+        int high = timestamps.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Result of a query; reuse one instance to avoid allocating per query
+    public static class Summary {
+        private int count;
+        private float average;
+        private float min;
+        private float max;
+        private float standardDeviation;
+        private float netChange;
+        private float weeklyRate;
+
+        public int getCount() {
+            return count;
+        }
+
+        public float getAverage() {
+            return average;
+        }
+
+        public float getMin() {
+            return min;
+        }
+
+        public float getMax() {
+            return max;
+        }
+
+        // Population standard deviation
+        public float getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        // Last reading minus first reading
+        public float getNetChange() {
+            return netChange;
+        }
+
+        // Net change per week between the first and last reading; 0 if they share a timestamp
+        public float getWeeklyRate() {
+            return weeklyRate;
+        }
+    }
+}
@@ -83,6 +83,8 @@ public class User {
         private String username;
         private long createdAt;
         private long lastLogin;
+        private String authProvider;
+        private boolean guest;
 
         public Profile() {}
 
@@ -102,6 +104,10 @@ public class User {
         public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
         public long getLastLogin() { return lastLogin; }
         public void setLastLogin(long lastLogin) { this.lastLogin = lastLogin; }
+        public String getAuthProvider() { return authProvider; }
+        public void setAuthProvider(String authProvider) { this.authProvider = authProvider; }
+        public boolean isGuest() { return guest; }
+        public void setGuest(boolean guest) { this.guest = guest; }
 
         @NonNull
         @Override
@@ -111,6 +117,8 @@ public class User {
                     ", username='" + username + '\'' +
                     ", createdAt=" + createdAt +
                     ", lastLogin=" + lastLogin +
+                    ", authProvider='" + authProvider + '\'' +
+                    ", guest=" + guest +
                     '}';
         }
     }
@@ -156,6 +164,10 @@ public class User {
 
     // Individual measurement/record - NOW PUBLIC
     public static class Measurement {
+        // Push key of this measurement under users/{uid}/measurements.
+        // Not a stored field: it is filled in from the snapshot key when read,
+        // so writes must go through field maps rather than setValue(measurement).
+        private String key;
         private long timestamp;
         private float weight;
         private float height;
@@ -174,7 +186,20 @@ public class User {
             this.note = "";
         }
 
+        // Copy, so an edited row can be diffed against the original
+        public Measurement(Measurement other) {
+            this.key = other.key;
+            this.timestamp = other.timestamp;
+            this.weight = other.weight;
+            this.height = other.height;
+            this.bmi = other.bmi;
+            this.category = other.category;
+            this.note = other.note;
+        }
+
         // Getters and Setters
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
         public long getTimestamp() { return timestamp; }
         public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
         public float getWeight() { return weight; }
@@ -192,7 +217,8 @@ public class User {
         @Override
         public String toString() {
             return "Measurement{" +
-                    "timestamp=" + timestamp +
+                    "key='" + key + '\'' +
+                    ", timestamp=" + timestamp +
                     ", weight=" + weight +
                     ", height=" + height +
                     ", bmi=" + bmi +
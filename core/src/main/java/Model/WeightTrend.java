@@ -0,0 +1,22 @@
+package Model;
+
+// Weight smoothing used by the statistics charts.
+// The EMA is time-aware: a reading pulls the average towards it by
+// 1 - e^(-gap / EMA_TIME_CONSTANT), so irregular gaps between readings are
+// weighted by elapsed time rather than by reading count. Readings sharing a
+// timestamp with the previous one leave the EMA unchanged.
+public final class WeightTrend {
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    public static final long WEEK_MILLIS = 7 * DAY_MILLIS;
+    public static final long MONTH_MILLIS = 30 * DAY_MILLIS;
+    public static final double EMA_TIME_CONSTANT_MILLIS = 10d * DAY_MILLIS;
+
+    private WeightTrend() {
+    }
+
+    public static float nextEma(float previousEma, long previousTimestamp, float weight, long timestamp) {
+        long gap = Math.max(timestamp - previousTimestamp, 0);
+        double alpha = 1 - Math.exp(-gap / EMA_TIME_CONSTANT_MILLIS);
+        return (float) (previousEma + alpha * (weight - previousEma));
+    }
+}
@@ -0,0 +1,73 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BmiClassifierTest {
+    private static final float[] BOUNDARY_BMIS = {
+            Math.nextDown(18.5f), 18.5f, Math.nextDown(24.9f), 24.9f,
+            Math.nextDown(29.9f), 29.9f, 0f, -1f, 100f, Float.NaN,
+            Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY
+    };
+
+    @Test
+    public void boundariesBelongToTheUpperCategory() {
+        BmiClassifier classifier = BmiClassifier.ADULT;
+        assertEquals(BmiCategory.UNDERWEIGHT, classifier.classify(Math.nextDown(18.5f)));
+        assertEquals(BmiCategory.NORMAL, classifier.classify(18.5f));
+        assertEquals(BmiCategory.NORMAL, classifier.classify(Math.nextDown(24.9f)));
+        assertEquals(BmiCategory.OVERWEIGHT, classifier.classify(24.9f));
+        assertEquals(BmiCategory.OVERWEIGHT, classifier.classify(Math.nextDown(29.9f)));
+        assertEquals(BmiCategory.OBESE, classifier.classify(29.9f));
+    }
+
+    @Test
+    public void nanIsLowestCategory() {
+        assertEquals(BmiCategory.UNDERWEIGHT, BmiClassifier.ADULT.classify(Float.NaN));
+    }
+
+    @Test
+    public void batchMatchesScalar() {
+        Random random = new Random(7);
+        float[] bmis = new float[BOUNDARY_BMIS.length + 1000];
+        System.arraycopy(BOUNDARY_BMIS, 0, bmis, 0, BOUNDARY_BMIS.length);
+        for (int i = BOUNDARY_BMIS.length; i < bmis.length; i++) {
+            bmis[i] = 10 + random.nextFloat() * 30;
+        }
+
+        byte[] codes = new byte[bmis.length];
+        BmiClassifier.ADULT.classify(bmis, codes);
+        for (int i = 0; i < bmis.length; i++) {
+            assertEquals("bmi " + bmis[i], BmiClassifier.ADULT.classifyCode(bmis[i]), codes[i]);
+            assertEquals(BmiClassifier.ADULT.classify(bmis[i]), BmiCategory.fromCode(codes[i]));
+        }
+    }
+
+    @Test
+    public void batchRangeLeavesTheRestAlone() {
+        float[] bmis = {17f, 20f, 27f, 35f};
+        byte[] codes = {-1, -1, -1, -1};
+        BmiClassifier.ADULT.classify(bmis, 1, 2, codes);
+        assertArrayEquals(new byte[]{-1, 1, 2, -1}, codes);
+    }
+
+    @Test
+    public void customThresholds() {
+        BmiClassifier classifier = new BmiClassifier(new float[]{18.5f, 23f, 27.5f});
+        assertEquals(BmiCategory.OVERWEIGHT, classifier.classify(24f));
+        assertArrayEquals(new float[]{18.5f, 23f, 27.5f}, classifier.getUpperBounds(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWrongThresholdCount() {
+        new BmiClassifier(new float[]{18.5f, 25f});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsortedThresholds() {
+        new BmiClassifier(new float[]{18.5f, 30f, 25f});
+    }
+}
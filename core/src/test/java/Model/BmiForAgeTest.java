@@ -0,0 +1,157 @@
+package Model;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class BmiForAgeTest {
+    // CDC bmiagerev.csv, boys at 24.0 months
+    private static final float BOYS_24_L = -2.01118107f;
+    private static final float BOYS_24_M = 16.57502768f;
+    private static final float BOYS_24_S = 0.080592465f;
+
+    // z-scores of the 5th, 85th and 95th percentiles
+    private static final float Z_P5 = -1.6448536f;
+    private static final float Z_P85 = 1.0364334f;
+    private static final float Z_P95 = 1.6448536f;
+
+    // one month per sex: boys use the CDC row above, girls a zero-lambda row
+    private final BmiForAge oneMonth = new BmiForAge(24, 1,
+            new float[]{BOYS_24_L, 0f},
+            new float[]{BOYS_24_M, 16.4f},
+            new float[]{BOYS_24_S, 0.08f});
+
+    private static float bmiAtZ(float l, float m, float s, float z) {
+        return (float) (m * Math.pow(1 + l * s * z, 1 / l));
+    }
+
+    @Test
+    public void medianIsFiftiethPercentile() {
+        assertEquals(50f, oneMonth.percentile(BmiForAge.SEX_MALE, 24, BOYS_24_M), 0.01f);
+        assertEquals(50f, oneMonth.percentile(BmiForAge.SEX_FEMALE, 24, 16.4f), 0.01f);
+    }
+
+    @Test
+    public void lmsTransformInvertsClosedForm() {
+        for (float z : new float[]{-2f, Z_P5, -0.5f, 0.5f, Z_P85, Z_P95, 2.5f}) {
+            float bmi = bmiAtZ(BOYS_24_L, BOYS_24_M, BOYS_24_S, z);
+            assertEquals(z, oneMonth.zScore(BmiForAge.SEX_MALE, 24, bmi), 1e-4f);
+        }
+    }
+
+    @Test
+    public void zeroLambdaUsesLogForm() {
+        float bmi = (float) (16.4 * Math.exp(0.08 * 1.5));
+        assertEquals(1.5f, oneMonth.zScore(BmiForAge.SEX_FEMALE, 24, bmi), 1e-4f);
+    }
+
+    @Test
+    public void percentilesOfKnownZScores() {
+        assertEquals(5f, BmiForAge.toPercentile(Z_P5), 1e-3f);
+        assertEquals(50f, BmiForAge.toPercentile(0f), 1e-3f);
+        assertEquals(85f, BmiForAge.toPercentile(Z_P85), 1e-3f);
+        assertEquals(95f, BmiForAge.toPercentile(Z_P95), 1e-3f);
+    }
+
+    @Test
+    public void outsideReferenceIsNaN() {
+        assertFalse(oneMonth.covers(-1, 24));
+        assertFalse(oneMonth.covers(BmiForAge.SEX_MALE, 23.4f));
+        assertFalse(oneMonth.covers(BmiForAge.SEX_MALE, 24.6f));
+        assertTrue(Float.isNaN(oneMonth.percentile(BmiForAge.SEX_MALE, 30, 17f)));
+        assertTrue(Float.isNaN(oneMonth.percentile(2, 24, 17f)));
+    }
+
+    @Test
+    public void batchMatchesScalar() {
+        float[] ages = {24, 24, 23, 24, 24.2f};
+        float[] bmis = {14f, 16.6f, 16f, 19.5f, 22f};
+        float[] out = new float[bmis.length];
+        oneMonth.percentiles(BmiForAge.SEX_MALE, ages, bmis, out);
+        for (int i = 0; i < bmis.length; i++) {
+            float expected = oneMonth.percentile(BmiForAge.SEX_MALE, ages[i], bmis[i]);
+            assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(out[i]));
+        }
+    }
+
+    @Test
+    public void categoryCutoffs() {
+        assertEquals(BmiCategory.UNDERWEIGHT, BmiForAge.categoryOf(4.99f));
+        assertEquals(BmiCategory.NORMAL, BmiForAge.categoryOf(5f));
+        assertEquals(BmiCategory.NORMAL, BmiForAge.categoryOf(84.99f));
+        assertEquals(BmiCategory.OVERWEIGHT, BmiForAge.categoryOf(85f));
+        assertEquals(BmiCategory.OVERWEIGHT, BmiForAge.categoryOf(94.99f));
+        assertEquals(BmiCategory.OBESE, BmiForAge.categoryOf(95f));
+    }
+
+    @Test
+    public void sexAndAgeMapping() {
+        assertEquals(BmiForAge.SEX_MALE, BmiForAge.sexOf("male"));
+        assertEquals(BmiForAge.SEX_FEMALE, BmiForAge.sexOf("Female"));
+        assertEquals(-1, BmiForAge.sexOf(null));
+        assertEquals(30f, BmiForAge.ageMonths(2), 0f);
+        assertEquals(234f, BmiForAge.ageMonths(19), 0f);
+    }
+
+    // The generated CDC tables must reproduce the published P5/P50/P85/P95 BMIs of
+    // the reference file at every whole month from 2 to 20 years, for both sexes
+    @Test
+    public void generatedTablesMatchPublishedPercentiles() throws IOException {
+        String path = System.getProperty("bmiForAge.referenceCsv");
+        assertTrue("CDC reference CSV not present: " + path, path != null && new File(path).isFile());
+
+        String[] names = {"P5", "P50", "P85", "P95"};
+        float[] expected = {5f, 50f, 85f, 95f};
+        List<TreeMap<Double, double[]>> published = readPercentiles(new File(path), names);
+        for (int sex = BmiForAge.SEX_MALE; sex <= BmiForAge.SEX_FEMALE; sex++) {
+            TreeMap<Double, double[]> rows = published.get(sex);
+            for (int month = 24; month <= 240; month++) {
+                double[] lower = rows.floorEntry((double) month).getValue();
+                double[] upper = rows.ceilingEntry((double) month).getValue();
+                double lowerAge = rows.floorKey((double) month);
+                double upperAge = rows.ceilingKey((double) month);
+                double t = upperAge == lowerAge ? 0 : (month - lowerAge) / (upperAge - lowerAge);
+                for (int p = 0; p < names.length; p++) {
+                    float bmi = (float) (lower[p] + (upper[p] - lower[p]) * t);
+                    assertEquals("sex " + sex + ", month " + month + ", " + names[p],
+                            expected[p], BmiForAge.CDC.percentile(sex, month, bmi), 0.5f);
+                }
+            }
+        }
+    }
+
+    // Agemos -> the named columns, one map per sex
+    private static List<TreeMap<Double, double[]>> readPercentiles(File csv, String[] names) throws IOException {
+        List<TreeMap<Double, double[]>> rows = Arrays.asList(new TreeMap<>(), new TreeMap<>());
+        try (BufferedReader reader = new BufferedReader(new FileReader(csv))) {
+            List<String> columns = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] cells = line.split(",");
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = cells[i].trim().replace("\"", "");
+                }
+                if (!cells[0].matches("[12]")) {
+                    if (Arrays.asList(cells).contains("Agemos")) columns = Arrays.asList(cells);
+                    continue;
+                }
+                double[] values = new double[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    values[i] = Double.parseDouble(cells[columns.indexOf(names[i])]);
+                }
+                int sex = Integer.parseInt(cells[0]) - 1;
+                rows.get(sex).put(Double.parseDouble(cells[columns.indexOf("Agemos")]), values);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,35 @@
+package Model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BmiMathTest {
+
+    @Test
+    public void bmiFromMetersAndCentimeters() {
+        assertEquals(22.857f, BmiMath.bmi(70f, 1.75f), 1e-3f);
+        assertEquals(BmiMath.bmi(70f, 1.75f), BmiMath.bmiFromCm(70f, 175f), 1e-5f);
+    }
+
+    @Test
+    public void goalProgressIsShareOfDistanceCovered() {
+        assertEquals(0f, BmiMath.goalProgress(30f, 30f, 25f), 1e-4f);
+        assertEquals(50f, BmiMath.goalProgress(30f, 27.5f, 25f), 1e-4f);
+        assertEquals(100f, BmiMath.goalProgress(30f, 25f, 25f), 1e-4f);
+        // gaining towards a higher target works the same way
+        assertEquals(25f, BmiMath.goalProgress(17f, 18f, 21f), 1e-4f);
+    }
+
+    @Test
+    public void goalProgressIsClamped() {
+        assertEquals(100f, BmiMath.goalProgress(30f, 23f, 25f), 0f);
+        assertEquals(0f, BmiMath.goalProgress(30f, 32f, 25f), 0f);
+    }
+
+    @Test
+    public void goalAtStartingBmiCountsAsReached() {
+        assertEquals(100f, BmiMath.goalProgress(24f, 24f, 24f), 0f);
+        assertEquals(100f, BmiMath.goalProgress(24f, 26f, 24f), 0f);
+    }
+}
@@ -0,0 +1,145 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class DayBucketerTest {
+    private static final TimeZone TORONTO = TimeZone.getTimeZone("America/Toronto");
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    // Epoch day of the local calendar date, computed the slow way
+    private static int expectedEpochDay(TimeZone zone, long timestamp) {
+        Calendar local = new GregorianCalendar(zone);
+        local.setTimeInMillis(timestamp);
+        Calendar utc = new GregorianCalendar(UTC);
+        utc.clear();
+        utc.set(local.get(Calendar.YEAR), local.get(Calendar.MONTH), local.get(Calendar.DAY_OF_MONTH));
+        return (int) Math.floorDiv(utc.getTimeInMillis(), WeightTrend.DAY_MILLIS);
+    }
+
+    private static long localTime(TimeZone zone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+
+    private static void assertMatchesCalendar(DayBucketer bucketer, TimeZone zone, long[] timestamps) {
+        for (long timestamp : timestamps) {
+            assertEquals("at " + timestamp, expectedEpochDay(zone, timestamp), bucketer.epochDay(timestamp));
+        }
+    }
+
+    // every few minutes across the day of the change, forwards and backwards
+    private static long[] around(long center) {
+        List<Long> values = new ArrayList<>();
+        for (long t = center - 30 * HOUR; t <= center + 30 * HOUR; t += 7 * MINUTE) {
+            values.add(t);
+        }
+        long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    private static long[] reversed(long[] values) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[values.length - 1 - i];
+        }
+        return result;
+    }
+
+    @Test
+    public void springForward() {
+        long change = localTime(TORONTO, 2023, Calendar.MARCH, 12, 3, 0);
+        assertMatchesCalendar(new DayBucketer(TORONTO), TORONTO, around(change));
+        assertMatchesCalendar(new DayBucketer(TORONTO), TORONTO, reversed(around(change)));
+    }
+
+    @Test
+    public void fallBack() {
+        long change = localTime(TORONTO, 2023, Calendar.NOVEMBER, 5, 1, 0);
+        assertMatchesCalendar(new DayBucketer(TORONTO), TORONTO, around(change));
+        assertMatchesCalendar(new DayBucketer(TORONTO), TORONTO, reversed(around(change)));
+    }
+
+    @Test
+    public void localMidnight() {
+        DayBucketer bucketer = new DayBucketer(TORONTO);
+        long midnight = localTime(TORONTO, 2024, Calendar.JULY, 1, 0, 0);
+        assertEquals(bucketer.epochDay(midnight) - 1, bucketer.epochDay(midnight - 1));
+        assertEquals(bucketer.epochDay(midnight), bucketer.epochDay(midnight + 24 * HOUR - 1));
+        assertEquals(expectedEpochDay(TORONTO, midnight), bucketer.epochDay(midnight));
+    }
+
+    @Test
+    public void randomTimestampsInSeveralZones() {
+        Random random = new Random(3);
+        for (String id : new String[]{"UTC", "America/Toronto", "Europe/London", "Australia/Lord_Howe",
+                "Asia/Kolkata", "Pacific/Chatham"}) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            DayBucketer bucketer = new DayBucketer(zone);
+            long[] timestamps = new long[2000];
+            for (int i = 0; i < timestamps.length; i++) {
+                timestamps[i] = 1_500_000_000_000L + (long) (random.nextDouble() * 300 * WeightTrend.DAY_MILLIS);
+            }
+            assertMatchesCalendar(bucketer, zone, timestamps);
+        }
+    }
+
+    @Test
+    public void latestPerDayKeepsFirstOfEachDay() {
+        long[] newestFirst = reversed(around(localTime(TORONTO, 2023, Calendar.NOVEMBER, 5, 1, 0)));
+        int[] out = new int[newestFirst.length];
+        int count = new DayBucketer(TORONTO).latestPerDay(newestFirst, newestFirst.length, Integer.MAX_VALUE, out);
+
+        List<Integer> expected = new ArrayList<>();
+        int lastDay = Integer.MAX_VALUE;
+        for (int i = 0; i < newestFirst.length; i++) {
+            int day = expectedEpochDay(TORONTO, newestFirst[i]);
+            if (day < lastDay) {
+                expected.add(i);
+                lastDay = day;
+            }
+        }
+        assertEquals(expected.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertEquals((int) expected.get(i), out[i]);
+        }
+    }
+
+    @Test
+    public void latestPerDayContinuesAcrossPages() {
+        long[] newestFirst = reversed(around(localTime(TORONTO, 2023, Calendar.MARCH, 12, 3, 0)));
+        DayBucketer bucketer = new DayBucketer(TORONTO);
+        int[] whole = new int[newestFirst.length];
+        int wholeCount = bucketer.latestPerDay(newestFirst, newestFirst.length, Integer.MAX_VALUE, whole);
+
+        // same history in two pages, split in the middle of a day
+        int split = newestFirst.length / 2 + 5;
+        long[] second = new long[newestFirst.length - split];
+        System.arraycopy(newestFirst, split, second, 0, second.length);
+        int[] out = new int[newestFirst.length];
+        int first = bucketer.latestPerDay(newestFirst, split, Integer.MAX_VALUE, out);
+        int previousDay = bucketer.epochDay(newestFirst[out[first - 1]]);
+        int[] rest = new int[second.length];
+        int restCount = bucketer.latestPerDay(second, second.length, previousDay, rest);
+
+        assertEquals(wholeCount, first + restCount);
+        for (int i = 0; i < restCount; i++) {
+            assertEquals(whole[first + i], rest[i] + split);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DownsamplerTest {
+
+    private static long[] x(int n) {
+        long[] x = new long[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = 1_600_000_000_000L + i * 3_600_000L;
+        }
+        return x;
+    }
+
+    private static float[] y(int n, long seed) {
+        Random random = new Random(seed);
+        float[] y = new float[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = 70 + random.nextFloat() * 10;
+        }
+        return y;
+    }
+
+    @Test
+    public void keepsEndpointsAndReturnsThresholdPoints() {
+        int n = 1000;
+        long[] x = x(n);
+        float[] y = y(n, 1);
+        for (int threshold : new int[]{3, 4, 10, 99, 500, 999}) {
+            for (int[] bounds : new int[][]{{0, n}, {100, 700}}) {
+                int from = bounds[0];
+                int to = bounds[1];
+                int[] out = new int[threshold];
+                int count = Downsampler.lttb(x, y, from, to, threshold, out);
+
+                assertEquals(Math.min(threshold, to - from), count);
+                assertEquals(from, out[0]);
+                assertEquals(to - 1, out[count - 1]);
+                for (int i = 1; i < count; i++) {
+                    assertTrue("ascending at " + i, out[i] > out[i - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shortRangesAreCopied() {
+        int[] out = new int[10];
+        assertEquals(5, Downsampler.lttb(x(20), y(20, 2), 3, 8, 10, out));
+        assertArrayEquals(new int[]{3, 4, 5, 6, 7}, java.util.Arrays.copyOf(out, 5));
+        assertEquals(0, Downsampler.lttb(x(20), y(20, 2), 4, 4, 10, out));
+    }
+
+    @Test
+    public void tinyThresholdsKeepTheEnds() {
+        int[] out = new int[2];
+        assertEquals(2, Downsampler.lttb(x(50), y(50, 3), 0, 50, 2, out));
+        assertArrayEquals(new int[]{0, 49}, out);
+        assertEquals(1, Downsampler.lttb(x(50), y(50, 3), 0, 50, 1, out));
+        assertEquals(0, out[0]);
+    }
+
+    @Test
+    public void keepsASpike() {
+        int n = 200;
+        long[] x = x(n);
+        float[] y = new float[n];
+        java.util.Arrays.fill(y, 70f);
+        y[123] = 90f;
+        int[] out = new int[20];
+        int count = Downsampler.lttb(x, y, 0, n, 20, out);
+        boolean found = false;
+        for (int i = 0; i < count; i++) {
+            found |= out[i] == 123;
+        }
+        assertTrue(found);
+    }
+}
@@ -0,0 +1,175 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MeasurementSeriesTest {
+    private static final MeasurementSeries.Column[] COLUMNS = MeasurementSeries.Column.values();
+
+    private static List<User.Measurement> randomMeasurements(Random random, int size) {
+        List<User.Measurement> measurements = new ArrayList<>();
+        long timestamp = 1_600_000_000_000L;
+        String[] categories = {"Underweight", "Normal", "Overweight", "Obese", null};
+        for (int i = 0; i < size; i++) {
+            // distinct timestamps, so the expected order is unambiguous
+            timestamp += 1 + random.nextInt((int) (3 * WeightTrend.DAY_MILLIS));
+            float weight = 60 + random.nextFloat() * 30;
+            User.Measurement m = new User.Measurement(weight, 175, BmiMath.bmiFromCm(weight, 175),
+                    categories[random.nextInt(categories.length)]);
+            m.setKey("k" + i);
+            m.setTimestamp(timestamp);
+            measurements.add(m);
+        }
+        return measurements;
+    }
+
+    // Every column of actual against a series built from scratch, plus the trend
+    // columns against a brute-force computation
+    private static void assertSeries(List<User.Measurement> expected, MeasurementSeries actual) {
+        MeasurementSeries rebuilt = MeasurementSeries.fromMeasurements(expected);
+        assertEquals(rebuilt.size(), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(rebuilt.keyAt(i), actual.keyAt(i));
+            assertEquals(rebuilt.timestampAt(i), actual.timestampAt(i));
+            assertEquals(rebuilt.categoryCodeAt(i), actual.categoryCodeAt(i));
+            for (MeasurementSeries.Column column : COLUMNS) {
+                assertEquals(column + " at " + i, rebuilt.valueAt(column, i), actual.valueAt(column, i), 1e-3f);
+            }
+        }
+        assertTrend(actual);
+    }
+
+    private static void assertTrend(MeasurementSeries series) {
+        float ema = 0;
+        for (int i = 0; i < series.size(); i++) {
+            long t = series.timestampAt(i);
+            ema = i == 0 ? series.weightAt(0)
+                    : WeightTrend.nextEma(ema, series.timestampAt(i - 1), series.weightAt(i), t);
+            assertEquals("ema at " + i, ema, series.valueAt(MeasurementSeries.Column.WEIGHT_EMA, i), 1e-3f);
+            assertEquals("week at " + i, average(series, i, WeightTrend.WEEK_MILLIS),
+                    series.valueAt(MeasurementSeries.Column.WEIGHT_WEEK_AVERAGE, i), 1e-3f);
+            assertEquals("month at " + i, average(series, i, WeightTrend.MONTH_MILLIS),
+                    series.valueAt(MeasurementSeries.Column.WEIGHT_MONTH_AVERAGE, i), 1e-3f);
+        }
+    }
+
+    // Mean weight of readings in (t - span, t] up to and including index
+    private static float average(MeasurementSeries series, int index, long span) {
+        long cutoff = series.timestampAt(index) - span;
+        double sum = 0;
+        int count = 0;
+        for (int i = index; i >= 0 && series.timestampAt(i) > cutoff; i--) {
+            sum += series.weightAt(i);
+            count++;
+        }
+        return (float) (sum / count);
+    }
+
+    @Test
+    public void outOfOrderInsertsMatchSortedBuild() {
+        Random random = new Random(21);
+        List<User.Measurement> measurements = randomMeasurements(random, 300);
+        List<User.Measurement> shuffled = new ArrayList<>(measurements);
+        Collections.shuffle(shuffled, random);
+
+        MeasurementSeries series = new MeasurementSeries();
+        List<User.Measurement> inserted = new ArrayList<>();
+        for (User.Measurement m : shuffled) {
+            int version = series.getVersion();
+            int index = series.insert(m);
+            assertEquals(m.getKey(), series.keyAt(index));
+            assertNotEquals(version, series.getVersion());
+            inserted.add(m);
+            if (inserted.size() % 50 == 0) {
+                assertSeries(inserted, series);
+            }
+        }
+        assertSeries(measurements, series);
+    }
+
+    @Test
+    public void removalsRecomputeTheTrend() {
+        Random random = new Random(8);
+        List<User.Measurement> measurements = randomMeasurements(random, 200);
+        MeasurementSeries series = MeasurementSeries.fromMeasurements(measurements);
+        List<User.Measurement> remaining = new ArrayList<>(measurements);
+
+        while (remaining.size() > 150) {
+            User.Measurement victim = remaining.remove(random.nextInt(remaining.size()));
+            assertTrue(series.remove(victim.getKey(), victim.getTimestamp()) >= 0);
+        }
+        assertSeries(remaining, series);
+
+        // first and last readings too
+        User.Measurement first = remaining.remove(0);
+        User.Measurement last = remaining.remove(remaining.size() - 1);
+        assertEquals(0, series.remove(first.getKey(), first.getTimestamp()));
+        assertEquals(series.size() - 1, series.remove(last.getKey(), last.getTimestamp()));
+        assertSeries(remaining, series);
+    }
+
+    @Test
+    public void removeNeedsKeyAndTimestamp() {
+        List<User.Measurement> measurements = randomMeasurements(new Random(1), 10);
+        MeasurementSeries series = MeasurementSeries.fromMeasurements(measurements);
+        User.Measurement m = measurements.get(4);
+        assertEquals(-1, series.remove("missing", m.getTimestamp()));
+        assertEquals(-1, series.remove(m.getKey(), m.getTimestamp() + 1));
+        assertEquals(10, series.size());
+    }
+
+    @Test
+    public void equalTimestampsInsertAfterExisting() {
+        MeasurementSeries series = new MeasurementSeries();
+        User.Measurement a = new User.Measurement(70f, 175, 22.9f, "Normal");
+        a.setKey("a");
+        a.setTimestamp(1000);
+        User.Measurement b = new User.Measurement(71f, 175, 23.2f, "Normal");
+        b.setKey("b");
+        b.setTimestamp(1000);
+        series.insert(a);
+        assertEquals(1, series.insert(b));
+        assertEquals("a", series.keyAt(0));
+        assertEquals(1, series.remove("b", 1000));
+        assertEquals(1, series.size());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        List<User.Measurement> measurements = randomMeasurements(new Random(4), 40);
+        MeasurementSeries series = MeasurementSeries.fromMeasurements(measurements);
+        MeasurementSeries copy = series.copy();
+        User.Measurement m = measurements.get(10);
+        series.remove(m.getKey(), m.getTimestamp());
+
+        assertEquals(40, copy.size());
+        assertSeries(measurements, copy);
+        // appending to the copy continues its own windows
+        List<User.Measurement> more = new ArrayList<>(measurements);
+        User.Measurement next = new User.Measurement(80f, 175, 26f, "Overweight");
+        next.setKey("next");
+        next.setTimestamp(copy.timestampAt(39) + WeightTrend.DAY_MILLIS);
+        copy.insert(next);
+        more.add(next);
+        assertSeries(more, copy);
+    }
+
+    @Test
+    public void rangeIsHalfOpen() {
+        List<User.Measurement> measurements = randomMeasurements(new Random(2), 50);
+        MeasurementSeries series = MeasurementSeries.fromMeasurements(measurements);
+        MeasurementSeries.Range range = new MeasurementSeries.Range();
+        long start = series.timestampAt(10);
+        long end = series.timestampAt(20);
+        series.range(start, end, range);
+        assertEquals(10, range.getOffset());
+        assertEquals(10, range.getLength());
+        assertTrue(series.range(end, start, range).isEmpty());
+    }
+}
@@ -0,0 +1,107 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RangeStatsTest {
+
+    private static MeasurementSeries randomSeries(Random random, int size) {
+        List<User.Measurement> measurements = new ArrayList<>();
+        long timestamp = 1_600_000_000_000L;
+        for (int i = 0; i < size; i++) {
+            // some readings share a timestamp
+            timestamp += random.nextInt(4) == 0 ? 0 : 1 + random.nextInt((int) WeightTrend.DAY_MILLIS);
+            User.Measurement m = new User.Measurement(50 + random.nextFloat() * 40, 170, 22f, "Normal");
+            m.setKey("k" + i);
+            m.setTimestamp(timestamp);
+            measurements.add(m);
+        }
+        return MeasurementSeries.fromMeasurements(measurements);
+    }
+
+    @Test
+    public void queryMatchesBruteForce() {
+        Random random = new Random(11);
+        for (int size : new int[]{0, 1, 2, 3, 17, 300}) {
+            MeasurementSeries series = randomSeries(random, size);
+            RangeStats stats = RangeStats.build(series, MeasurementSeries.Column.WEIGHT);
+            RangeStats.Summary summary = new RangeStats.Summary();
+            long first = size > 0 ? series.timestampAt(0) : 0;
+            long last = size > 0 ? series.timestampAt(size - 1) : 0;
+
+            for (int q = 0; q < 500; q++) {
+                long start = first - WeightTrend.DAY_MILLIS
+                        + (long) (random.nextDouble() * (last - first + 2 * WeightTrend.DAY_MILLIS));
+                long end = q % 50 == 0 ? Long.MAX_VALUE
+                        : start + (long) (random.nextDouble() * 60 * WeightTrend.DAY_MILLIS);
+                if (q % 7 == 0 && size > 0) {
+                    // bounds exactly on readings
+                    start = series.timestampAt(random.nextInt(size));
+                    end = Math.max(start, series.timestampAt(random.nextInt(size)));
+                }
+                stats.query(start, end, summary);
+                assertSummary(series, start, end, summary);
+            }
+        }
+    }
+
+    private static void assertSummary(MeasurementSeries series, long start, long end, RangeStats.Summary actual) {
+        int count = 0;
+        double sum = 0;
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        int firstIndex = -1;
+        int lastIndex = -1;
+        for (int i = 0; i < series.size(); i++) {
+            long t = series.timestampAt(i);
+            if (t < start || t > end) continue;
+            float w = series.weightAt(i);
+            if (firstIndex < 0) firstIndex = i;
+            lastIndex = i;
+            count++;
+            sum += w;
+            min = Math.min(min, w);
+            max = Math.max(max, w);
+        }
+
+        String where = "[" + start + ", " + end + "]";
+        assertEquals(where, count, actual.getCount());
+        if (count == 0) return;
+
+        double mean = sum / count;
+        double squares = 0;
+        for (int i = firstIndex; i <= lastIndex; i++) {
+            double d = series.weightAt(i) - mean;
+            squares += d * d;
+        }
+        float net = series.weightAt(lastIndex) - series.weightAt(firstIndex);
+        long span = series.timestampAt(lastIndex) - series.timestampAt(firstIndex);
+
+        assertEquals(where, mean, actual.getAverage(), 1e-3);
+        assertEquals(where, min, actual.getMin(), 0f);
+        assertEquals(where, max, actual.getMax(), 0f);
+        assertEquals(where, Math.sqrt(squares / count), actual.getStandardDeviation(), 1e-2);
+        assertEquals(where, net, actual.getNetChange(), 1e-4f);
+        assertEquals(where, span > 0 ? net / (span / (double) WeightTrend.WEEK_MILLIS) : 0,
+                actual.getWeeklyRate(), 1e-3);
+    }
+
+    @Test
+    public void statsKeepTheirSnapshot() {
+        MeasurementSeries series = randomSeries(new Random(5), 20);
+        RangeStats stats = RangeStats.build(series, MeasurementSeries.Column.WEIGHT);
+        User.Measurement extra = new User.Measurement(500f, 170, 22f, "Normal");
+        extra.setKey("extra");
+        extra.setTimestamp(series.timestampAt(19) + 1);
+        series.insert(extra);
+
+        RangeStats.Summary summary = stats.query(Long.MIN_VALUE, Long.MAX_VALUE, new RangeStats.Summary());
+        assertEquals(20, summary.getCount());
+        assertTrue(summary.getMax() < 500f);
+    }
+}
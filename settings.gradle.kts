@@ -22,3 +22,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "BMI FrontEnd"
 include(":app")
+include(":core")